@@ -1,5 +1,8 @@
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.util.Scanner;
@@ -9,19 +12,34 @@ public class BlackjackClient {
         // Should read from serverinfo.dat, but hardcoded for convenience
         String serverIP = "127.0.0.1";
         int serverPort = 6789;
+        // --binary: negotiate the compact WireProtocol instead of text lines
+        boolean binary = args.length > 0 && args[0].equals("--binary");
 
         try (Socket socket = new Socket(serverIP, serverPort);
-             PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
              Scanner scanner = new Scanner(System.in)) {
 
-            System.out.println("Connected to the server.");
-            
+            InputStream rawIn = socket.getInputStream();
+            OutputStream rawOut = socket.getOutputStream();
+            if (binary) {
+                WireProtocol.negotiate(rawIn, rawOut);
+            }
+            PrintWriter out = new PrintWriter(rawOut, true);
+
+            System.out.println("Connected to the server." + (binary ? " (binary protocol)" : ""));
+
             // 1. Thread for receiving server messages (Listener)
             Thread listener = new Thread(() -> {
                 try {
+                    if (binary) {
+                        DataInputStream frameIn = new DataInputStream(rawIn);
+                        while (true) {
+                            System.out.println("[Server] " + WireProtocol.describe(WireProtocol.readFrame(frameIn)));
+                        }
+                    }
+                    BufferedReader in = new BufferedReader(new InputStreamReader(rawIn));
                     String msg;
                     while ((msg = in.readLine()) != null) {
+                        if (msg.startsWith(WireProtocol.EVENT_PREFIX)) continue; // machine-readable twin of the previous line
                         System.out.println("[Server] " + msg);
                     }
                 } catch (Exception e) {
@@ -32,32 +50,44 @@ public class BlackjackClient {
 
             // 2. Send user input (Main Thread)
             System.out.println("Command Guide:");
+            System.out.println(" - Log In: LOGIN <Name>  (keeps your balance between sessions)");
+            System.out.println(" - Resume a dropped session: RESUME <Token>  (token from the SESSION line)");
             System.out.println(" - Start Game: START");
             System.out.println(" - Place Bet: BET <Amount>  (e.g., BET 100)");
             System.out.println(" - Actions: HIT, STAND, DOUBLEDOWN, SURRENDER");
-            
+
             while (true) {
                 String input = scanner.nextLine();
-                
+
                 if (input.startsWith("BET ")) {
                     // Convert protocol: "BET 100" -> "PLACE_BET:100"
                     String amount = input.split(" ")[1];
-                    out.println("PLACE_BET:" + amount);
-                } else if (input.equalsIgnoreCase("HIT")) {
-                    // "HIT" -> "PLAYER_ACTION:Hit"
-                    out.println("PLAYER_ACTION:Hit");
-                } else if (input.equalsIgnoreCase("STAND")) {
-                    // "STAND" -> "PLAYER_ACTION:Stand"
-                    out.println("PLAYER_ACTION:Stand");
-                } else if (input.equalsIgnoreCase("START")){
+                    if (binary) {
+                        try {
+                            WireProtocol.writeCommand(rawOut, WireProtocol.PLACE_BET, Integer.parseInt(amount));
+                        } catch (NumberFormatException e) {
+                            System.out.println("Invalid bet amount.");
+                        }
+                    } else {
+                        out.println("PLACE_BET:" + amount);
+                    }
+                } else if (input.startsWith("LOGIN ")) {
+                    String name = input.substring("LOGIN ".length()).trim();
+                    if (binary) WireProtocol.writeIdCommand(rawOut, WireProtocol.LOGIN, name);
+                    else out.println("LOGIN:" + name);
+                } else if (input.startsWith("RESUME ")) {
+                    String token = input.substring("RESUME ".length()).trim();
+                    if (binary) WireProtocol.writeIdCommand(rawOut, WireProtocol.RESUME, token);
+                    else out.println("RESUME:" + token);
+                } else if (input.equalsIgnoreCase("START")) {
                     // "START" -> "Game START"
-                    out.println("START");
-                } else if (input.equalsIgnoreCase("DOUBLEDOWN")) { 
-                    // "DOUBLEDOWN" -> "PLAYER_ACTION:DoubleDown"
-                    out.println("PLAYER_ACTION:DoubleDown");
-                } else if (input.equalsIgnoreCase("SURRENDER")) { 
-                    // "SURRENDER" -> "PLAYER_ACTION:Surrender"
-                    out.println("PLAYER_ACTION:Surrender");
+                    if (binary) WireProtocol.writeCommand(rawOut, WireProtocol.START, 0);
+                    else out.println("START");
+                } else if (WireProtocol.actionCode(input) >= 0) {
+                    // "HIT" -> "PLAYER_ACTION:Hit", "DOUBLEDOWN" -> "PLAYER_ACTION:DoubleDown", ...
+                    byte action = WireProtocol.actionCode(input);
+                    if (binary) WireProtocol.writeCommand(rawOut, WireProtocol.PLAYER_ACTION, action);
+                    else out.println("PLAYER_ACTION:" + WireProtocol.actionName(action));
                 } else {
                     System.out.println("Unknown command. Please check spelling.");
                 }
@@ -4,9 +4,12 @@ import java.awt.font.FontRenderContext;
 import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +18,9 @@ public class BlackjackClientGUI extends JFrame {
     private Socket socket;
     private PrintWriter out;
     private BufferedReader in;
+    private transient OutputStream rawOut; // binary protocol frames
+    private boolean binaryProtocol = false;
+    private String myPlayerId; // from WELCOME
     private Thread listenerThread;
     
     // Server Info
@@ -44,6 +50,7 @@ public class BlackjackClientGUI extends JFrame {
     private JTextField betAmountField;
     private JTextField serverIPField;
     private JTextField serverPortField;
+    private JCheckBox binaryCheckBox;
     
     // Game State
     private int playerScore = 0;
@@ -101,6 +108,9 @@ public class BlackjackClientGUI extends JFrame {
         serverPortField = new JTextField("6789", 6);
         panel.add(serverPortField);
         
+        binaryCheckBox = new JCheckBox("바이너리 프로토콜");
+        panel.add(binaryCheckBox);
+        
         connectButton = new JButton("연결");
         connectButton.addActionListener(e -> connectToServer());
         panel.add(connectButton);
@@ -262,19 +272,33 @@ public class BlackjackClientGUI extends JFrame {
             serverPort = Integer.parseInt(serverPortField.getText().trim());
             
             socket = new Socket(serverIP, serverPort);
-            out = new PrintWriter(socket.getOutputStream(), true);
+            rawOut = socket.getOutputStream();
+            binaryProtocol = binaryCheckBox.isSelected();
+            if (binaryProtocol) {
+                // 텍스트 대신 압축 바이너리 프레임 사용 (WireProtocol)
+                WireProtocol.negotiate(socket.getInputStream(), rawOut);
+            }
+            out = new PrintWriter(rawOut, true);
             in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             
             isConnected = true;
             gameStatusLabel.setText("연결됨");
             gameStatusLabel.setForeground(Color.GREEN);
             connectButton.setEnabled(false);
+            binaryCheckBox.setEnabled(false);
             appendLog("서버에 연결되었습니다: " + serverIP + ":" + serverPort);
             
             updateUIState();
             
             listenerThread = new Thread(() -> {
                 try {
+                    if (binaryProtocol) {
+                        DataInputStream frameIn = new DataInputStream(socket.getInputStream());
+                        while (true) {
+                            final ByteBuffer frame = WireProtocol.readFrame(frameIn);
+                            SwingUtilities.invokeLater(() -> processBinaryMessage(frame));
+                        }
+                    }
                     String msg;
                     while ((msg = in.readLine()) != null) {
                         final String message = msg;
@@ -302,6 +326,7 @@ public class BlackjackClientGUI extends JFrame {
         gameStatusLabel.setText("연결 안됨");
         gameStatusLabel.setForeground(Color.RED);
         connectButton.setEnabled(true);
+        binaryCheckBox.setEnabled(true);
         
         try {
             if (socket != null) socket.close();
@@ -311,194 +336,133 @@ public class BlackjackClientGUI extends JFrame {
     }
 
     private void processServerMessage(String msg) {
-        appendLog("[서버] " + msg);
-        
-        if (msg.contains("YOUR_TURN")) {
-            isMyTurn = true;
-            appendLog(">>> 당신의 턴입니다! 액션을 선택하세요.");
-            updateUIState();
-        } else if (msg.contains("TURN:") && !msg.contains("YOUR_TURN")) {
-            isMyTurn = false;
-            updateUIState();
-        } else if (msg.contains("GAME_PHASE: Betting Phase")) {
-            isBettingPhase = true;
-            isMyTurn = false;
-            resultLabel.setText("");
-            updateUIState();
-        } else if (msg.contains("ROUND_START")) {
-            isBettingPhase = false;
-            clearCards();
-            resultLabel.setText("");
-            updateUIState();
-        } else if (msg.contains("INFO: Dealer's open card")) {
-            parseDealerInitialCard(msg);
-        } else if (msg.contains("INITIAL_DEAL")) {
-            parseInitialDeal(msg);
-        } else if (msg.contains("Dealer drew") || msg.contains("DEALER_DRAW")) {
-            parseDealerCard(msg);
-        } else if (msg.contains("Hit!") || msg.contains("Double Down!")) {
-            parsePlayerCard(msg);
-        } else if (msg.contains("Your current balance") || msg.contains("Balance after")) {
-            parseBalance(msg);
-        } else if (msg.contains("placed a bet")) {
-            parseBet(msg);
-        } else if (msg.contains("GAME_END")) {
-            isMyTurn = false;
-            isBettingPhase = false;
-            updateUIState();
-        } else if (msg.startsWith("GAME_RESULT:")) {
-            String result = msg.split(":")[1].trim();
-            if (result.equals("WIN")) {
-                resultLabel.setText("WIN!");
-                resultLabel.setForeground(Color.decode("#e7bb54"));
-            } else if (result.equals("LOSE")) {
-                resultLabel.setText("LOSE...");
-                resultLabel.setForeground(Color.decode("#064abf")); // ★ 요청하신 파란색
-            } else if (result.equals("TIE")) {
-                resultLabel.setText("TIE");
-                resultLabel.setForeground(Color.decode("#a3a3a3"));
-            }
-            updateUIState();
+        // 텍스트 프로토콜: 사람이 읽는 줄은 로그에만, 그 다음에 오는 "EVT ..." 레코드로 상태 갱신
+        if (!ClientEvents.dispatch(msg, events)) {
+            appendLog("[서버] " + msg);
         }
     }
 
-    private void parseDealerInitialCard(String msg) {
-        try {
-            // 형식: "INFO: Dealer's open card: [A] (Score: 11)"
-            int cardStartIdx = msg.indexOf("[") + 1;
-            int cardEndIdx = msg.indexOf("]", cardStartIdx);
-            if (cardEndIdx > cardStartIdx) {
-                String cardName = msg.substring(cardStartIdx, cardEndIdx).trim();
-                
-                // 점수도 파싱
-                int scoreStartIdx = msg.indexOf("Score:") + 6;
-                int scoreEndIdx = msg.indexOf(")", scoreStartIdx);
-                if (scoreEndIdx > scoreStartIdx) {
-                    String scoreStr = msg.substring(scoreStartIdx, scoreEndIdx).trim();
-                    dealerScore = Integer.parseInt(scoreStr);
-                }
-                
-                // 딜러 카드가 이미 초기화되어 있지 않으면 추가
-                if (dealerCardLabels.isEmpty()) {
-                    clearCards();
-                    addDealerCard(cardName);
-                    updateScores();
-                }
-            }
-        } catch (Exception e) {}
+    // 바이너리 프로토콜: 필드를 그대로 읽으므로 문자열 파싱이 필요 없음
+    private void processBinaryMessage(ByteBuffer frame) {
+        appendLog("[서버] " + WireProtocol.describe(frame));
+        ClientEvents.dispatch(frame, events);
     }
 
-    private void parseInitialDeal(String msg) {
-        try {
-            // Cards 파싱 (예: "Cards=[A,7]")
-            String cardsPart = msg.substring(msg.indexOf("Cards=[") + 7);
-            cardsPart = cardsPart.substring(0, cardsPart.indexOf("]"));
-            
-            // Total 점수 파싱
-            String totalPart = msg.substring(msg.indexOf("Total=[") + 7);
-            totalPart = totalPart.substring(0, totalPart.indexOf("]"));
-            playerScore = Integer.parseInt(totalPart);
-
-            // 플레이어 카드 추가
-            String[] cards = cardsPart.split(",");
-            for (String c : cards) {
-                addPlayerCard(c.trim()); // 카드 이름을 그대로 전달
-            }
-            updateScores();
-            
-        } catch (Exception e) {
-            appendLog("카드 파싱 오류: " + e.getMessage());
+    // Both protocols end up here; other players' cards and bets are ignored
+    private final transient ClientEvents.Listener events = new ClientEvents.Listener() {
+        @Override public void onWelcome(String playerId, int balance, int tableId) {
+            myPlayerId = playerId;
+            onBalance(balance);
+        }
+        @Override public void onYourTurn() { BlackjackClientGUI.this.onYourTurn(); }
+        @Override public void onTurn(String playerId) { onOtherTurn(); }
+        @Override public void onBettingPhase() { BlackjackClientGUI.this.onBettingPhase(); }
+        @Override public void onRoundStart() { BlackjackClientGUI.this.onRoundStart(); }
+        @Override public void onDealerCard(String card, int score) {
+            // 라운드 시작 때 카드가 비워지므로 첫 장이 오픈 카드
+            if (dealerCardLabels.isEmpty()) onDealerOpenCard(card, score);
+            else BlackjackClientGUI.this.onDealerCard(card, score);
         }
+        @Override public void onInitialDeal(String dealerCard, String card1, String card2, int total) {
+            BlackjackClientGUI.this.onInitialDeal(new String[] {card1, card2}, total);
+        }
+        @Override public void onPlayerCard(String playerId, String card, int score, boolean doubleDown) {
+            if (playerId.equals(myPlayerId)) BlackjackClientGUI.this.onPlayerCard(card, score);
+        }
+        @Override public void onBalance(int balance) { BlackjackClientGUI.this.onBalance(balance); }
+        @Override public void onBet(String playerId, int amount) {
+            if (playerId.equals(myPlayerId)) BlackjackClientGUI.this.onBet(amount);
+        }
+        @Override public void onGameEnd() { BlackjackClientGUI.this.onGameEnd(); }
+        @Override public void onResult(String status) { onGameResult(status); }
+    };
+
+    private void onYourTurn() {
+        isMyTurn = true;
+        appendLog(">>> 당신의 턴입니다! 액션을 선택하세요.");
+        updateUIState();
     }
 
-    private void parseDealerCard(String msg) {
-        try {
-            // 메시지 형식 예: "DEALER_DRAW: Dealer drew [A]. (Dealer Score: 11)"
-            
-            // 1. 카드 이름 파싱 ([ ] 사이의 값 추출)
-            int cardStartIdx = msg.indexOf("[");
-            int cardEndIdx = msg.indexOf("]", cardStartIdx);
-            
-            if (cardStartIdx != -1 && cardEndIdx > cardStartIdx) {
-                String cardName = msg.substring(cardStartIdx + 1, cardEndIdx).trim();
-                // 카드 UI 추가
-                addDealerCard(cardName);
-            }
-            
-            // 2. 딜러 점수 파싱 ("Score:" 뒤의 숫자 추출)
-            if (msg.contains("Score")) {
-                // "Score" 키워드가 포함된 부분부터 끝까지 자른 뒤 숫자만 추출
-                String scorePart = msg.substring(msg.lastIndexOf("Score"));
-                String scoreStr = scorePart.replaceAll("[^0-9]", "");
-                
-                if (!scoreStr.isEmpty()) {
-                    dealerScore = Integer.parseInt(scoreStr);
-                    updateScores();
-                }
-            }
-        } catch (Exception e) {
-            appendLog("딜러 카드 파싱 오류: " + e.getMessage());
-            e.printStackTrace(); // 디버깅을 위해 콘솔에도 출력
+    private void onOtherTurn() {
+        isMyTurn = false;
+        updateUIState();
+    }
+
+    private void onBettingPhase() {
+        isBettingPhase = true;
+        isMyTurn = false;
+        resultLabel.setText("");
+        updateUIState();
+    }
+
+    private void onRoundStart() {
+        isBettingPhase = false;
+        clearCards();
+        resultLabel.setText("");
+        updateUIState();
+    }
+
+    private void onGameEnd() {
+        isMyTurn = false;
+        isBettingPhase = false;
+        updateUIState();
+    }
+
+    private void onGameResult(String result) {
+        if (result.equals("WIN")) {
+            resultLabel.setText("WIN!");
+            resultLabel.setForeground(Color.decode("#e7bb54"));
+        } else if (result.equals("LOSE")) {
+            resultLabel.setText("LOSE...");
+            resultLabel.setForeground(Color.decode("#064abf")); // ★ 요청하신 파란색
+        } else if (result.equals("TIE")) {
+            resultLabel.setText("TIE");
+            resultLabel.setForeground(Color.decode("#a3a3a3"));
         }
+        updateUIState();
     }
 
-    private void parsePlayerCard(String msg) {
-        try {
-            // 형식: "Hit! (Draw: A, Score: 18)" 또는 "Double Down! (Draw: K, Final Score: 20)"
-            if (msg.contains("Draw:")) {
-                int drawIndex = msg.indexOf("Draw:") + 5;
-                int commaIndex = msg.indexOf(",", drawIndex);
-                int scoreIndex = msg.indexOf("Score:");
-                
-                String cardName;
-                if (commaIndex != -1 && commaIndex < scoreIndex) {
-                    cardName = msg.substring(drawIndex, commaIndex).trim();
-                } else {
-                    // Score 전까지가 카드 이름
-                    cardName = msg.substring(drawIndex, scoreIndex).trim();
-                }
-                
-                // 점수 파싱
-                int scoreStartIdx = msg.indexOf("Score:") + 6;
-                int endParenIndex = msg.indexOf(")", scoreStartIdx);
-                if (endParenIndex == -1) endParenIndex = msg.length();
-                
-                String scoreStr = msg.substring(scoreStartIdx, endParenIndex).trim().replaceAll("[^0-9]", "");
-                if (!scoreStr.isEmpty()) {
-                    playerScore = Integer.parseInt(scoreStr);
-                }
-                
-                addPlayerCard(cardName);
-                updateScores();
-            }
-        } catch (Exception e) {
-            appendLog("플레이어 카드 파싱 오류: " + e.getMessage());
+    private void onDealerOpenCard(String cardName, int score) {
+        // 딜러 카드가 이미 초기화되어 있지 않으면 추가
+        if (dealerCardLabels.isEmpty()) {
+            clearCards();
+            dealerScore = score;
+            addDealerCard(cardName);
+            updateScores();
         }
     }
 
-    private void parseBalance(String msg) {
-        try {
-            int startIdx = msg.indexOf("[") + 1;
-            int endIdx = msg.indexOf("]", startIdx);
-            if (endIdx > startIdx) {
-                balance = Integer.parseInt(msg.substring(startIdx, endIdx));
-                balanceLabel.setText("잔액: " + balance);
-            }
-        } catch (Exception e) {}
+    private void onInitialDeal(String[] cards, int total) {
+        playerScore = total;
+        // 플레이어 카드 추가
+        for (String c : cards) {
+            addPlayerCard(c.trim()); // 카드 이름을 그대로 전달
+        }
+        updateScores();
     }
 
-    private void parseBet(String msg) {
-        try {
-            if (msg.contains("placed a bet of")) {
-                int startIdx = msg.indexOf("bet of ") + 7;
-                int endIdx = msg.indexOf(".", startIdx);
-                if (endIdx == -1) endIdx = msg.length();
-                currentBet = Integer.parseInt(msg.substring(startIdx, endIdx).trim());
-                currentBetLabel.setText("현재 베팅: " + currentBet);
-            }
-        } catch (Exception e) {}
+    private void onDealerCard(String cardName, int score) {
+        addDealerCard(cardName);
+        dealerScore = score;
+        updateScores();
     }
-    
+
+    private void onPlayerCard(String cardName, int score) {
+        playerScore = score;
+        addPlayerCard(cardName);
+        updateScores();
+    }
+
+    private void onBalance(int newBalance) {
+        balance = newBalance;
+        balanceLabel.setText("잔액: " + balance);
+    }
+
+    private void onBet(int amount) {
+        currentBet = amount;
+        currentBetLabel.setText("현재 베팅: " + currentBet);
+    }
+
     private void addDealerCard(String cardName) {
         if (cardName == null || cardName.isEmpty()) return;
 
@@ -569,8 +533,13 @@ public class BlackjackClientGUI extends JFrame {
             return;
         }
         if (out != null) {
-            out.println("START");
-            appendLog("게임 시작 요청을 보냈습니다.");
+            try {
+                if (binaryProtocol) WireProtocol.writeCommand(rawOut, WireProtocol.START, 0);
+                else out.println("START");
+                appendLog("게임 시작 요청을 보냈습니다.");
+            } catch (Exception e) {
+                appendLog("전송 실패: " + e.getMessage());
+            }
         }
     }
 
@@ -583,9 +552,12 @@ public class BlackjackClientGUI extends JFrame {
         try {
             int amount = Integer.parseInt(betAmountField.getText().trim());
             if (out != null) {
-                out.println("PLACE_BET:" + amount);
+                if (binaryProtocol) WireProtocol.writeCommand(rawOut, WireProtocol.PLACE_BET, amount);
+                else out.println("PLACE_BET:" + amount);
                 appendLog("베팅 요청: " + amount);
             }
+        } catch (java.io.IOException e) {
+            appendLog("전송 실패: " + e.getMessage());
         } catch (NumberFormatException e) {
             appendLog("올바른 숫자를 입력하세요.");
             JOptionPane.showMessageDialog(this, "올바른 베팅 금액을 입력하세요.", 
@@ -603,7 +575,13 @@ public class BlackjackClientGUI extends JFrame {
             return;
         }
         if (out != null) {
-            out.println("PLAYER_ACTION:" + action);
+            try {
+                if (binaryProtocol) WireProtocol.writeCommand(rawOut, WireProtocol.PLAYER_ACTION, WireProtocol.actionCode(action));
+                else out.println("PLAYER_ACTION:" + action);
+            } catch (Exception e) {
+                appendLog("전송 실패: " + e.getMessage());
+                return;
+            }
             appendLog("액션 전송: " + action);
             isMyTurn = false;
             updateUIState();
@@ -1,6 +1,72 @@
 import java.util.List;
 
+/**
+ * Reference scoring over a card list. Each call rescans the whole list; the game itself scores
+ * incrementally through Hand, and these methods stay as the straightforward definition that
+ * Hand is checked against.
+ *
+ * Table-driven mode: a hand's scoring state is fully described by (hard total, has ace, two cards),
+ * so HAND_TABLE answers score/soft/bust/blackjack with one index, and the dealer's play is a small
+ * automaton (DEALER_NEXT / DEALER_STANDS) over (hard total, has ace). Both are built at class load.
+ */
 public class BlackjackScoreCalculator {
+    // Hard totals a hand can reach in play: 21 before the last card + a ten is 31
+    public static final int MAX_HARD = 31;
+    private static final int RANKS = Card.Rank.values().length;
+
+    // HAND_TABLE entry: bits 0-4 score, bit 5 soft, bit 6 bust, bit 7 blackjack
+    private static final int SOFT_BIT = 1 << 5;
+    private static final int BUST_BIT = 1 << 6;
+    private static final int BLACKJACK_BIT = 1 << 7;
+    private static final short[] HAND_TABLE = new short[(MAX_HARD + 1) * 4];
+
+    // Dealer automaton. state = hardTotal * 2 + hasAce
+    public static final int DEALER_START = 0;
+    private static final byte[] DEALER_NEXT = new byte[(MAX_HARD + 1) * 2 * RANKS];
+    private static final boolean[] DEALER_STANDS = new boolean[(MAX_HARD + 1) * 2];
+    private static final byte[] DEALER_SCORE = new byte[(MAX_HARD + 1) * 2];
+
+    static {
+        for (int hard = 0; hard <= MAX_HARD; hard++) {
+            for (int ace = 0; ace <= 1; ace++) {
+                // Same rule as calculateScore: one ace counts 11 if that doesn't bust
+                boolean soft = ace == 1 && hard + 10 <= 21;
+                int score = soft ? hard + 10 : hard;
+                int entry = score | (soft ? SOFT_BIT : 0) | (hard > 21 ? BUST_BIT : 0);
+                HAND_TABLE[handIndex(hard, ace == 1, 3)] = (short) entry;
+                HAND_TABLE[handIndex(hard, ace == 1, 2)] = (short) (entry | (score == 21 ? BLACKJACK_BIT : 0));
+
+                int state = hard * 2 + ace;
+                DEALER_SCORE[state] = (byte) score;
+                // 딜러는 17 이상이 될 때까지 카드를 받음 (Soft 17 포함)
+                DEALER_STANDS[state] = score >= 17;
+                for (int rank = 0; rank < RANKS; rank++) {
+                    Card card = Card.of(rank);
+                    int nextHard = Math.min(hard + card.getValue(), MAX_HARD);
+                    int nextAce = (ace == 1 || card.isAce()) ? 1 : 0;
+                    DEALER_NEXT[state * RANKS + rank] = (byte) (nextHard * 2 + nextAce);
+                }
+            }
+        }
+    }
+
+    /** Index into the hand table; count is the number of cards (only "exactly two" matters). */
+    public static int handIndex(int hardTotal, boolean hasAce, int count) {
+        return (hardTotal << 2) | (hasAce ? 2 : 0) | (count == 2 ? 1 : 0);
+    }
+
+    public static int tableScore(int index) { return HAND_TABLE[index] & 0x1F; }
+    public static boolean tableSoft(int index) { return (HAND_TABLE[index] & SOFT_BIT) != 0; }
+    public static boolean tableBust(int index) { return (HAND_TABLE[index] & BUST_BIT) != 0; }
+    public static boolean tableBlackjack(int index) { return (HAND_TABLE[index] & BLACKJACK_BIT) != 0; }
+
+    /** Dealer state after drawing a card with the given rank code. */
+    public static int dealerNext(int state, int rankCode) {
+        return DEALER_NEXT[state * RANKS + rankCode];
+    }
+
+    public static boolean dealerStands(int state) { return DEALER_STANDS[state]; }
+    public static int dealerScore(int state) { return DEALER_SCORE[state]; }
 
     /**
      * 블랙잭 점수를 계산합니다.
@@ -72,4 +138,13 @@ public class BlackjackScoreCalculator {
     public static boolean isBlackjack(List<Card> cards) {
         return cards.size() == 2 && calculateScore(cards) == 21;
     }
+
+    /** True if the incremental Hand agrees with the list-based reference on every query. */
+    public static boolean matches(Hand hand, List<Card> cards) {
+        return hand.size() == cards.size()
+                && hand.getScore() == calculateScore(cards)
+                && hand.isSoft() == isSoftHand(cards)
+                && hand.isBust() == isBust(cards)
+                && hand.isBlackjack() == isBlackjack(cards);
+    }
 }
@@ -1,14 +1,129 @@
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BlackjackServer {
     public static void main(String[] args) {
         int port = 6789;
-        
-        // 1. Create Shared Resource (GameRoom)
-        // All handler threads share this single object.
-        GameRoom gameRoom = new GameRoom();
+        String mode = "thread"; // thread (thread-per-connection) | virtual | nio
+        int ioThreads = Runtime.getRuntime().availableProcessors();
+        int seatsPerTable = 7;
+        long dealerDelayMillis = 1000;
+        int outboundCapacity = 256;
+        OutboundQueue.Policy slowConsumerPolicy = OutboundQueue.Policy.DISCONNECT;
+        int decks = Shoe.getDefaultDecks();
+        double penetration = Shoe.getDefaultPenetration();
+        int metricsPort = 0; // 0 = no text endpoint (JMX is always on)
+        String ledgerFile = null; // null = wallets in memory only
+        long ledgerSyncMillis = 50;
+        long resumeGraceMillis = 30_000;
+        long turnTimeoutMillis = 30_000; // 0 = wait forever
+        long betTimeoutMillis = 30_000;
+        long timerTickMillis = TimerWheel.getDefaultTickMillis();
+        int tableWorkers = Runtime.getRuntime().availableProcessors();
+        Long seed = null; // null = every shoe gets a random seed
+        String historyFile = null; // null = rounds are not logged
+        int spectatorRing = 1024; // stream entries a spectator may lag before skipping to a keyframe
+        Stakes[] stakes = {Stakes.ANY}; // one table (at least) per level
 
+        // Startup options: --mode=thread|virtual|nio --port=N --io-threads=N --seats=N --dealer-delay=MS
+        //                  --outbound-queue=N --slow-consumer=disconnect|drop-oldest --decks=1-8 --penetration=0.75
+        //                  --metrics-port=N --ledger=FILE --ledger-sync=MS --resume-grace=MS
+        //                  --turn-timeout=MS --bet-timeout=MS --timer-tick=MS --table-workers=N
+        //                  --seed=N --history=FILE --spectator-ring=N --stakes=MIN-MAX,...
+        for (String arg : args) {
+            if (arg.startsWith("--mode=")) {
+                mode = arg.substring("--mode=".length());
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--io-threads=")) {
+                ioThreads = Integer.parseInt(arg.substring("--io-threads=".length()));
+            } else if (arg.startsWith("--seats=")) {
+                seatsPerTable = Integer.parseInt(arg.substring("--seats=".length()));
+            } else if (arg.startsWith("--dealer-delay=")) {
+                dealerDelayMillis = Long.parseLong(arg.substring("--dealer-delay=".length()));
+            } else if (arg.startsWith("--outbound-queue=")) {
+                outboundCapacity = Integer.parseInt(arg.substring("--outbound-queue=".length()));
+            } else if (arg.startsWith("--slow-consumer=")) {
+                String policy = arg.substring("--slow-consumer=".length());
+                slowConsumerPolicy = policy.equals("drop-oldest") ? OutboundQueue.Policy.DROP_OLDEST : OutboundQueue.Policy.DISCONNECT;
+            } else if (arg.startsWith("--decks=")) {
+                decks = Integer.parseInt(arg.substring("--decks=".length()));
+            } else if (arg.startsWith("--penetration=")) {
+                penetration = Double.parseDouble(arg.substring("--penetration=".length()));
+            } else if (arg.startsWith("--metrics-port=")) {
+                metricsPort = Integer.parseInt(arg.substring("--metrics-port=".length()));
+            } else if (arg.startsWith("--ledger=")) {
+                ledgerFile = arg.substring("--ledger=".length());
+            } else if (arg.startsWith("--ledger-sync=")) {
+                ledgerSyncMillis = Long.parseLong(arg.substring("--ledger-sync=".length()));
+            } else if (arg.startsWith("--resume-grace=")) {
+                resumeGraceMillis = Long.parseLong(arg.substring("--resume-grace=".length()));
+            } else if (arg.startsWith("--turn-timeout=")) {
+                turnTimeoutMillis = Long.parseLong(arg.substring("--turn-timeout=".length()));
+            } else if (arg.startsWith("--bet-timeout=")) {
+                betTimeoutMillis = Long.parseLong(arg.substring("--bet-timeout=".length()));
+            } else if (arg.startsWith("--timer-tick=")) {
+                timerTickMillis = Long.parseLong(arg.substring("--timer-tick=".length()));
+            } else if (arg.startsWith("--table-workers=")) {
+                tableWorkers = Integer.parseInt(arg.substring("--table-workers=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--history=")) {
+                historyFile = arg.substring("--history=".length());
+            } else if (arg.startsWith("--spectator-ring=")) {
+                spectatorRing = Integer.parseInt(arg.substring("--spectator-ring=".length()));
+            } else if (arg.startsWith("--stakes=")) {
+                stakes = Stakes.parseList(arg.substring("--stakes=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        OutboundQueue.setDefaults(outboundCapacity, slowConsumerPolicy);
+        Shoe.setDefaults(decks, penetration);
+        Shoe.setServerSeed(seed); // before the first table opens
+        TimerWheel.setDefaultTickMillis(timerTickMillis);
+        TableStream.setDefaults(spectatorRing);
+        ServerMetrics.registerMBean();
+
+        // 1. Create Shared Resource (TableManager)
+        // Handlers are spread over many GameRooms; each runs its commands one at a time on a shared worker pool.
+        TableManager tableManager = new TableManager(seatsPerTable, 1, dealerDelayMillis, TableManager.newWorkerPool(tableWorkers), stakes);
+        tableManager.setResumeGraceMillis(resumeGraceMillis);
+        tableManager.setTimeouts(turnTimeoutMillis, betTimeoutMillis);
+
+        try {
+            if (ledgerFile != null) {
+                tableManager.setLedger(Ledger.open(Path.of(ledgerFile), ledgerSyncMillis));
+            }
+            if (historyFile != null) {
+                tableManager.setHandHistory(HandHistory.open(Path.of(historyFile)));
+            }
+            if (metricsPort > 0) {
+                ServerMetrics.serve(metricsPort);
+            }
+            if (mode.equals("nio")) {
+                new NioServer(port, ioThreads, tableManager).start();
+            } else {
+                runThreadPerConnection(port, tableManager, newHandlerExecutor(mode));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // thread: a new platform thread per handler, virtual: a Java 21 virtual thread per handler
+    static ExecutorService newHandlerExecutor(String mode) {
+        if (mode.equals("virtual")) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+    }
+
+    private static void runThreadPerConnection(int port, TableManager tableManager, ExecutorService handlers) throws Exception {
         try (ServerSocket serverSocket = new ServerSocket(port)) {
             System.out.println("Blackjack Server started on port " + port);
 
@@ -18,11 +133,9 @@ public class BlackjackServer {
                 System.out.println("New player connected: " + clientSocket.getInetAddress());
 
                 // 3. Create and start handler thread (Multi-thread)
-                ClientHandlerB handler = new ClientHandlerB(clientSocket, gameRoom);
-                new Thread(handler).start();
+                ClientHandlerB handler = new ClientHandlerB(clientSocket, tableManager);
+                handlers.execute(handler);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
     }
 }
@@ -0,0 +1,71 @@
+/**
+ * One BOT_PLAY request: up to `rounds` rounds at a bot table, played back to back with one policy,
+ * and the totals that go back to the bot as a single BOT_RESULT frame.
+ * Only the bot table's worker touches it (see GameRoom.playBots).
+ */
+public final class BotBatch {
+    public static final int MAX_ROUNDS = 1_000_000;
+
+    final TablePlayer bot;
+    final int bet;
+    private final PlayerStrategy policy;
+    private int remaining;
+    private long startNanos;
+
+    private int rounds;
+    private long wagered;
+    private long paidOut;
+    private final int[] outcomes = new int[7]; // by WireProtocol.OUTCOME_*
+
+    public BotBatch(TablePlayer bot, int rounds, int bet, PlayerStrategy policy) {
+        if (rounds < 1 || rounds > MAX_ROUNDS) throw new IllegalArgumentException("rounds must be 1-" + MAX_ROUNDS);
+        if (bet < 1) throw new IllegalArgumentException("bet must be positive");
+        this.bot = bot;
+        this.remaining = rounds;
+        this.bet = bet;
+        this.policy = policy;
+    }
+
+    void started() {
+        if (startNanos == 0) startNanos = System.nanoTime();
+    }
+
+    boolean hasNext() { return remaining > 0; }
+
+    void played() { remaining--; }
+
+    /** Ends the batch early (out of money, or the bot left or dropped). */
+    void stop() { remaining = 0; }
+
+    byte decide(Card dealerUp) {
+        byte action = policy.decide(bot.getHand(), dealerUp);
+        if (action == WireProtocol.ACTION_DOUBLE_DOWN && bot.getBalance() < bot.getCurrentBet()) {
+            return policy.decideWithoutDouble(bot.getHand(), dealerUp); // the engine would refuse the double
+        }
+        return action;
+    }
+
+    void count(RoundEvent e) {
+        switch (e.type) {
+            case RoundEvent.BET_PLACED:
+                wagered += e.a;
+                break;
+            case RoundEvent.DOUBLE_DOWN:
+                wagered += e.c;
+                break;
+            case RoundEvent.SETTLED:
+                rounds++;
+                paidOut += e.b;
+                outcomes[e.a]++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    ServerMessage result() {
+        ServerMetrics.botRounds(rounds, wagered, paidOut);
+        int millis = (int) ((System.nanoTime() - startNanos) / 1_000_000);
+        return ServerMessage.botResult(rounds, wagered, paidOut, bot.getBalance(), millis, outcomes);
+    }
+}
@@ -1,58 +1,95 @@
-public class Card {
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable card rank. There are exactly 13 instances (suits don't matter for scoring);
+ * get them with Card.of, so dealing never allocates.
+ */
+public final class Card {
     public enum Rank {
         ACE, TWO, THREE, FOUR, FIVE, SIX, SEVEN,
         EIGHT, NINE, TEN, JACK, QUEEN, KING
     }
-    
-    private Rank rank;
-    
-    public Card(Rank rank) {
+
+    private static final Rank[] RANKS = Rank.values();
+    private static final Card[] CARDS = new Card[RANKS.length];
+    static {
+        for (Rank r : RANKS) {
+            CARDS[r.ordinal()] = new Card(r);
+        }
+    }
+
+    private final Rank rank;
+    private final int value;
+    private final String displayName;
+
+    private Card(Rank rank) {
         this.rank = rank;
+        this.value = valueOf(rank);
+        this.displayName = displayNameOf(rank, value);
+    }
+
+    public static Card of(Rank rank) {
+        return CARDS[rank.ordinal()];
     }
-    
+
+    /** Card for a rank code (Rank ordinal), as stored by Shoe and Hand and sent by WireProtocol. */
+    public static Card of(int code) {
+        return CARDS[code];
+    }
+
     public Rank getRank() {
         return rank;
     }
-    
+
+    public byte getCode() {
+        return (byte) rank.ordinal();
+    }
+
     // 카드의 표시 이름 반환 (A, 2-10, J, Q, K)
     public String getDisplayName() {
+        return displayName;
+    }
+
+    // 기본 값 반환 (ACE=1, J/Q/K/TEN=10)
+    public int getValue() {
+        return value;
+    }
+
+    public boolean isAce() {
+        return rank == Rank.ACE;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    private static String displayNameOf(Rank rank, int value) {
         switch (rank) {
             case ACE: return "A";
             case JACK: return "J";
             case QUEEN: return "Q";
             case KING: return "K";
             case TEN: return "10";
-            default: return String.valueOf(getValue());
+            default: return String.valueOf(value);
         }
     }
-    
-    // 기본 값 반환 (ACE=1, J/Q/K/TEN=10)
-    public int getValue() {
+
+    private static int valueOf(Rank rank) {
         switch (rank) {
             case ACE: return 1;
             case TEN:
             case JACK:
             case QUEEN:
             case KING: return 10;
-            default: 
+            default:
                 // TWO(1)=2, THREE(2)=3, ... NINE(8)=9
                 return rank.ordinal() + 1;
         }
     }
-    
-    public boolean isAce() {
-        return rank == Rank.ACE;
-    }
-    
-    @Override
-    public String toString() {
-        return getDisplayName();
-    }
-    
-    // 랜덤 카드 생성 (1장 뽑기)
+
+    // 랜덤 카드 생성 (1장 뽑기, 무한 덱). 테이블은 Shoe에서 카드를 받음
     public static Card drawRandom() {
-        Rank[] ranks = Rank.values();
-        Rank randomRank = ranks[(int)(Math.random() * ranks.length)];
-        return new Card(randomRank);
+        return CARDS[ThreadLocalRandom.current().nextInt(CARDS.length)];
     }
 }
@@ -0,0 +1,353 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client-side decoding of server events, shared by the GUI, bots and benchmarks.
+ * Text clients feed it the "EVT ..." records (see WireProtocol.event), binary clients the frames;
+ * either way each event lands on one Listener callback through a single switch.
+ * Text fields are read in place (numbers are never cut out into strings).
+ */
+public final class ClientEvents {
+    private ClientEvents() {}
+
+    /** Callbacks for the events a client cares about; everything defaults to ignoring the event. */
+    public interface Listener {
+        default void onWelcome(String playerId, int balance, int tableId) {}
+        default void onBettingPhase() {}
+        default void onBalance(int balance) {}
+        default void onBet(String playerId, int amount) {}
+        default void onRoundStart() {}
+        default void onDealerCard(String card, int score) {}
+        default void onInitialDeal(String dealerCard, String card1, String card2, int total) {}
+        default void onTurn(String playerId) {}
+        default void onYourTurn() {}
+        default void onPlayerCard(String playerId, String card, int score, boolean doubleDown) {}
+        default void onStand(String playerId, int score) {}
+        default void onSurrender(String playerId) {}
+        default void onBust(String playerId) {}
+        default void onDealerTurn(int score) {}
+        default void onDealerFinal(int score) {}
+        default void onSettle(String playerId, String outcome, int amount) {}
+        default void onResult(String status) {}
+        default void onGameEnd() {}
+        default void onSession(String token) {}
+        /** After RESUME: the seat's state. Phase is WireProtocol.phaseName; turnPlayerId is null outside the players' turns. */
+        default void onSnapshot(String playerId, int balance, int bet, String phase, List<String> dealerCards,
+                                int dealerScore, List<String> cards, int score, String turnPlayerId) {}
+        /** Totals of a BOT_PLAY batch; outcomes are counts by WireProtocol.OUTCOME_*. */
+        default void onBotResult(int rounds, long wagered, long paidOut, int balance, int millis, int[] outcomes) {}
+        /** A spectator's keyframe: the table as a whole, followed by one onTableSeat per seat. */
+        default void onTableView(int tableId, String phase, List<String> dealerCards, int dealerScore, String turnPlayerId, int seats) {}
+        default void onTableSeat(String playerId, int bet, List<String> cards, int score) {}
+        /** A page of LIST_TABLES, followed by one onLobbyTable per table listed. */
+        default void onLobby(int openTables, int page, int seatsPerTable, int count) {}
+        /** maxBet 0 = no limit. */
+        default void onLobbyTable(int tableId, int minBet, int maxBet, int seatsTaken, int handsPerHour) {}
+    }
+
+    public static boolean isEvent(String line) {
+        return line.startsWith(WireProtocol.EVENT_PREFIX);
+    }
+
+    /** Dispatches one "EVT <TYPE> <fields...>" line. Returns false if it isn't a well-formed event. */
+    public static boolean dispatch(String line, Listener l) {
+        if (!isEvent(line)) return false;
+        Fields f = new Fields(line, WireProtocol.EVENT_PREFIX.length());
+        try {
+            switch (f.next()) {
+                case "WELCOME": l.onWelcome(f.next(), f.nextInt(), f.nextInt()); break;
+                case "PHASE": l.onBettingPhase(); break;
+                case "BALANCE": l.onBalance(f.nextInt()); break;
+                case "BET": l.onBet(f.next(), f.nextInt()); break;
+                case "ROUND_START": l.onRoundStart(); break;
+                case "CARD": {
+                    String who = f.next();
+                    String card = f.nextCard();
+                    int score = f.nextInt();
+                    if (who.equals("dealer")) l.onDealerCard(card, score);
+                    else l.onPlayerCard(who, card, score, false);
+                    break;
+                }
+                case "DOUBLE": l.onPlayerCard(f.next(), f.nextCard(), f.nextInt(), true); break;
+                case "DEAL": l.onInitialDeal(f.nextCard(), f.nextCard(), f.nextCard(), f.nextInt()); break;
+                case "STAND": l.onStand(f.next(), f.nextInt()); break;
+                case "SURRENDER": l.onSurrender(f.next()); break;
+                case "BUST": l.onBust(f.next()); break;
+                case "TURN": l.onTurn(f.next()); break;
+                case "YOUR_TURN": l.onYourTurn(); break;
+                case "DEALER_TURN": l.onDealerTurn(f.nextInt()); break;
+                case "DEALER_FINAL": l.onDealerFinal(f.nextInt()); break;
+                case "SETTLE": l.onSettle(f.next(), f.next(), f.nextInt()); break;
+                case "RESULT": l.onResult(f.next()); break;
+                case "GAME_END": l.onGameEnd(); break;
+                case "SESSION": l.onSession(f.next()); break;
+                case "SNAPSHOT": {
+                    String id = f.next();
+                    int balance = f.nextInt();
+                    int bet = f.nextInt();
+                    String phase = f.next();
+                    List<String> dealer = f.nextCards();
+                    int dealerScore = f.nextInt();
+                    List<String> cards = f.nextCards();
+                    int score = f.nextInt();
+                    String turn = f.next();
+                    l.onSnapshot(id, balance, bet, phase, dealer, dealerScore, cards, score, turn.equals("-") ? null : turn);
+                    break;
+                }
+                case "BOT_RESULT": {
+                    int rounds = f.nextInt();
+                    long wagered = f.nextLong();
+                    long paid = f.nextLong();
+                    int balance = f.nextInt();
+                    int millis = f.nextInt();
+                    int[] outcomes = new int[7];
+                    for (int o = 0; o < outcomes.length; o++) outcomes[o] = f.nextInt();
+                    l.onBotResult(rounds, wagered, paid, balance, millis, outcomes);
+                    break;
+                }
+                case "LOBBY": {
+                    int open = f.nextInt();
+                    int page = f.nextInt();
+                    int seats = f.nextInt();
+                    int count = f.nextInt();
+                    l.onLobby(open, page, seats, count);
+                    for (int i = 0; i < count; i++) {
+                        l.onLobbyTable(f.nextInt(), f.nextInt(), f.nextInt(), f.nextInt(), f.nextInt());
+                    }
+                    break;
+                }
+                case "TABLE": {
+                    int table = f.nextInt();
+                    String phase = f.next();
+                    List<String> dealer = f.nextCards();
+                    int dealerScore = f.nextInt();
+                    String turn = f.next();
+                    int seats = f.nextInt();
+                    l.onTableView(table, phase, dealer, dealerScore, turn.equals("-") ? null : turn, seats);
+                    for (int i = 0; i < seats; i++) {
+                        l.onTableSeat(f.next(), f.nextInt(), f.nextCards(), f.nextInt());
+                    }
+                    break;
+                }
+                default: return false;
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false; // truncated or garbled record
+        }
+    }
+
+    /** Dispatches one binary frame body (opcode + payload); LOG and SEPARATOR frames are ignored. */
+    public static void dispatch(ByteBuffer frame, Listener l) {
+        ByteBuffer b = frame.duplicate();
+        byte op = b.get();
+        switch (op) {
+            case WireProtocol.WELCOME: {
+                String id = WireProtocol.readId(b);
+                int balance = b.getInt();
+                l.onWelcome(id, balance, b.getShort() & 0xFFFF);
+                break;
+            }
+            case WireProtocol.GAME_PHASE: l.onBettingPhase(); break;
+            case WireProtocol.BALANCE_INFO:
+                b.get(); // kind
+                l.onBalance(b.getInt());
+                break;
+            case WireProtocol.BET_PLACED: {
+                String id = WireProtocol.readId(b);
+                l.onBet(id, b.getInt());
+                break;
+            }
+            case WireProtocol.ROUND_START: l.onRoundStart(); break;
+            case WireProtocol.DEALER_OPEN:
+            case WireProtocol.DEALER_DRAW: {
+                String card = WireProtocol.cardName(b.get());
+                l.onDealerCard(card, b.get());
+                break;
+            }
+            case WireProtocol.INITIAL_DEAL: {
+                String dealer = WireProtocol.cardName(b.get());
+                String c1 = WireProtocol.cardName(b.get());
+                String c2 = WireProtocol.cardName(b.get());
+                l.onInitialDeal(dealer, c1, c2, b.get());
+                break;
+            }
+            case WireProtocol.HIT:
+            case WireProtocol.DOUBLE_DOWN: {
+                String id = WireProtocol.readId(b);
+                String card = WireProtocol.cardName(b.get());
+                l.onPlayerCard(id, card, b.get(), op == WireProtocol.DOUBLE_DOWN);
+                break;
+            }
+            case WireProtocol.STAND: {
+                String id = WireProtocol.readId(b);
+                l.onStand(id, b.get());
+                break;
+            }
+            case WireProtocol.SURRENDER: l.onSurrender(WireProtocol.readId(b)); break;
+            case WireProtocol.BUST: l.onBust(WireProtocol.readId(b)); break;
+            case WireProtocol.TURN: l.onTurn(WireProtocol.readId(b)); break;
+            case WireProtocol.YOUR_TURN: l.onYourTurn(); break;
+            case WireProtocol.DEALER_TURN: l.onDealerTurn(b.get()); break;
+            case WireProtocol.DEALER_FINAL: l.onDealerFinal(b.get()); break;
+            case WireProtocol.SETTLEMENT: {
+                String id = WireProtocol.readId(b);
+                String outcome = WireProtocol.outcomeName(b.get());
+                l.onSettle(id, outcome, b.getInt());
+                break;
+            }
+            case WireProtocol.GAME_RESULT: l.onResult(WireProtocol.statusName(b.get())); break;
+            case WireProtocol.GAME_END: l.onGameEnd(); break;
+            case WireProtocol.SESSION: l.onSession(WireProtocol.readId(b)); break;
+            case WireProtocol.SNAPSHOT: {
+                String id = WireProtocol.readId(b);
+                int balance = b.getInt();
+                int bet = b.getInt();
+                String phase = WireProtocol.phaseName(b.get());
+                List<String> dealer = readCards(b);
+                int dealerScore = b.get();
+                List<String> cards = readCards(b);
+                int score = b.get();
+                String turn = WireProtocol.readId(b);
+                l.onSnapshot(id, balance, bet, phase, dealer, dealerScore, cards, score, turn.isEmpty() ? null : turn);
+                break;
+            }
+            case WireProtocol.BOT_RESULT: {
+                int rounds = b.getInt();
+                long wagered = b.getLong();
+                long paid = b.getLong();
+                int balance = b.getInt();
+                int millis = b.getInt();
+                int[] outcomes = new int[7];
+                for (int o = 0; o < outcomes.length; o++) outcomes[o] = b.getInt();
+                l.onBotResult(rounds, wagered, paid, balance, millis, outcomes);
+                break;
+            }
+            case WireProtocol.LOBBY: {
+                int open = b.getInt();
+                int page = b.getShort() & 0xFFFF;
+                int seats = b.get() & 0xFF;
+                int count = b.get() & 0xFF;
+                l.onLobby(open, page, seats, count);
+                for (int i = 0; i < count; i++) {
+                    int table = b.getShort() & 0xFFFF;
+                    int min = b.getInt();
+                    int max = b.getInt();
+                    int taken = b.get() & 0xFF;
+                    l.onLobbyTable(table, min, max, taken, b.getInt());
+                }
+                break;
+            }
+            case WireProtocol.TABLE_VIEW: {
+                int table = b.getShort() & 0xFFFF;
+                String phase = WireProtocol.phaseName(b.get());
+                List<String> dealer = readCards(b);
+                int dealerScore = b.get();
+                String turn = WireProtocol.readId(b);
+                int seats = b.get() & 0xFF;
+                l.onTableView(table, phase, dealer, dealerScore, turn.isEmpty() ? null : turn, seats);
+                for (int i = 0; i < seats; i++) {
+                    String id = WireProtocol.readId(b);
+                    int bet = b.getInt();
+                    List<String> cards = readCards(b);
+                    l.onTableSeat(id, bet, cards, b.get());
+                }
+                break;
+            }
+            default: break;
+        }
+    }
+
+    private static List<String> readCards(ByteBuffer b) {
+        int n = b.get() & 0xFF;
+        List<String> cards = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) cards.add(WireProtocol.cardName(b.get()));
+        return cards;
+    }
+
+    // Card names come back as the shared WireProtocol constants
+    private static String cardAt(String s, int from, int to) {
+        int len = to - from;
+        int code;
+        if (len == 2 && s.charAt(from) == '1' && s.charAt(from + 1) == '0') {
+            code = 9;
+        } else if (len == 1) {
+            char c = s.charAt(from);
+            code = c == 'A' ? 0 : c == 'J' ? 10 : c == 'Q' ? 11 : c == 'K' ? 12
+                    : (c >= '2' && c <= '9') ? c - '1' : -1;
+        } else {
+            code = -1;
+        }
+        if (code < 0) throw new IllegalArgumentException("bad card");
+        return WireProtocol.cardName((byte) code);
+    }
+
+    // Space-separated fields read left to right
+    private static final class Fields {
+        private final String s;
+        private int pos;
+
+        Fields(String s, int pos) {
+            this.s = s;
+            this.pos = pos;
+        }
+
+        private int end() {
+            int end = s.indexOf(' ', pos);
+            return end < 0 ? s.length() : end;
+        }
+
+        String next() {
+            int end = end();
+            if (end == pos) throw new IllegalArgumentException("missing field");
+            String field = s.substring(pos, end);
+            pos = end + 1;
+            return field;
+        }
+
+        String nextCard() {
+            int end = end();
+            String card = cardAt(s, pos, end);
+            pos = end + 1;
+            return card;
+        }
+
+        // Comma-separated cards, or "-" for none
+        List<String> nextCards() {
+            int end = end();
+            List<String> cards = new ArrayList<>();
+            if (!(end == pos + 1 && s.charAt(pos) == '-')) {
+                int from = pos;
+                for (int i = pos; i <= end; i++) {
+                    if (i == end || s.charAt(i) == ',') {
+                        cards.add(cardAt(s, from, i));
+                        from = i + 1;
+                    }
+                }
+            }
+            pos = end + 1;
+            return cards;
+        }
+
+        int nextInt() {
+            return (int) nextLong();
+        }
+
+        long nextLong() {
+            int end = end();
+            if (end == pos) throw new IllegalArgumentException("missing number");
+            int i = pos;
+            boolean negative = s.charAt(i) == '-';
+            if (negative) i++;
+            long value = 0;
+            for (; i < end; i++) {
+                int d = s.charAt(i) - '0';
+                if (d < 0 || d > 9) throw new IllegalArgumentException("bad number");
+                value = value * 10 + d;
+            }
+            pos = end + 1;
+            return negative ? -value : value;
+        }
+    }
+}
@@ -1,79 +1,630 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
+import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
-public class ClientHandlerB implements Runnable {
+public class ClientHandlerB implements Runnable, TablePlayer {
+    private static final SecureRandom TOKENS = new SecureRandom();
+
+    // Session life: CONNECTED -> PARKED (connection lost, seat held for the grace period) -> CLOSED,
+    // or -> RESUMED once a new connection has taken the seat over
+    private static final int CONNECTED = 0;
+    private static final int PARKED = 1;
+    private static final int RESUMED = 2;
+    private static final int CLOSED = 3;
+
     private Socket socket;
-    private GameRoom gameRoom;
-    private PrintWriter out;
+    private NioConnection connection; // NIO mode only (socket is null)
+    private TableManager tableManager;
+    private volatile GameRoom gameRoom; // assigned by the TableManager on connect, moved by resume
+    private volatile SpectatorFanout.Subscription spectating; // set while watching gameRoom instead of sitting at it
+    private BufferedOutputStream out;
     private BufferedReader in;
 
-    // Player Information
+    // Outbound lines wait here; GameRoom never writes to the socket directly
+    private final OutboundQueue outbound = OutboundQueue.withDefaults(this::onSlowConsumer);
+    private Thread writer; // thread mode only; the NIO event loop drains the queue itself
+
+    // Negotiated protocol (see WireProtocol). sendLock makes the switch atomic with respect to
+    // concurrent sends, so no text line can slip in after the acknowledgement. Nothing inside blocks.
+    private final Object sendLock = new Object();
+    private volatile boolean binary = false;
+
+    // Player Information: game state, only touched on the table's worker (see GameRoom.submit)
     private String playerId;
     private int balance = 1000; // Initial Balance
     private int currentBet = 0;
-    private List<Card> cards = new ArrayList<>(); // 플레이어의 카드 리스트
+    private final Hand hand = new Hand(); // 플레이어의 카드 (라운드마다 재사용)
 
     private boolean isBetPlaced = false; // Check if bet is placed
     private boolean isSurrender = false; // Check if surrendered
+    private boolean loggedIn = false;    // balance changes go to the ledger only for accounts
+    private boolean away = false;        // connection down, seat held (set by RoundEngine.playerAway)
+
+    private volatile String sessionToken;
+    private int sessionState = CONNECTED; // guarded by this
 
-    public ClientHandlerB(Socket socket, GameRoom room) {
+    public ClientHandlerB(Socket socket, TableManager tableManager) {
         this.socket = socket;
-        this.gameRoom = room;
+        this.tableManager = tableManager;
         // Generate temporary ID (Login protocol required in real app)
         this.playerId = "Player" + (int)(Math.random() * 1000);
     }
 
+    // NIO mode: the event loop owns the channel, this handler only sees framed lines
+    public ClientHandlerB(NioConnection connection, TableManager tableManager) {
+        this.connection = connection;
+        this.tableManager = tableManager;
+        this.playerId = "Player" + (int)(Math.random() * 1000);
+    }
+
     @Override
     public void run() {
         try {
-            out = new PrintWriter(socket.getOutputStream(), true);
+            out = new BufferedOutputStream(socket.getOutputStream());
             in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
 
-            // Join Game Room
-            gameRoom.join(this);
-            sendMessage("WELCOME: Welcome to the Blackjack Server! (ID: " + playerId + ", Balance: " + balance + ")");
+            // Writer runs on the same kind of thread as this handler (platform or virtual)
+            Thread.Builder builder = Thread.currentThread().isVirtual() ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            writer = builder.name("writer-" + playerId).start(this::writeLoop);
+
+            onConnected();
 
             String inputLine;
             while ((inputLine = in.readLine()) != null) {
-                // Parse Protocol (Format: "COMMAND:DATA")
-                String[] parts = inputLine.split(":", 2);
-                String command = parts[0];
-                String data = parts.length > 1 ? parts[1] : "";
-
-                if (command.equals("START")) { // ★ Game Start Command
-                    gameRoom.startGame();
-                
-                } else if (command.equals("PLACE_BET")) {
-                    try {
-                        int amount = Integer.parseInt(data);
-                        gameRoom.placeBet(this, amount);
-                    } catch (NumberFormatException e) {
-                        sendMessage("ERROR: Invalid bet amount.");
-                    }
-                } else if (command.equals("PLAYER_ACTION")) {
-                    gameRoom.handlePlayerAction(this, data);
-                } else if (command.equals("BALANCE")) { // Added for completeness
-                    sendMessage("INFO: Current Balance is [" + balance + "].");
+                handleCommand(inputLine);
+                if (binary) {
+                    // The client waits for the acknowledgement, so nothing past this line is buffered in `in`
+                    readFrames(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                    break;
                 }
             }
         } catch (Exception e) {
             System.out.println("Connection Closed: " + playerId);
         } finally {
-            gameRoom.leave(this);
+            disconnected();
+            outbound.close();
+            if (writer != null) writer.interrupt();
+            try { socket.close(); } catch (Exception e) {}
+        }
+    }
+
+    // Same limits as NioConnection.decodeFrame: a bad length or a malformed payload ends the connection
+    private void readFrames(DataInputStream frameIn) throws IOException {
+        while (true) {
+            ByteBuffer frame = WireProtocol.readFrame(frameIn, WireProtocol.MAX_FRAME);
+            try {
+                handleFrame(frame);
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed frame", e);
+            }
+        }
+    }
+
+    // Drains the outbound queue: write the whole batch, then flush once
+    private void writeLoop() {
+        List<ByteBuffer> batch = new ArrayList<>();
+        WritableByteChannel sink = Channels.newChannel(out);
+        try {
+            while (true) {
+                batch.clear();
+                outbound.takeBatch(batch, 64);
+                for (ByteBuffer frame : batch) {
+                    while (frame.hasRemaining()) {
+                        ServerMetrics.bytesWritten(sink.write(frame));
+                    }
+                }
+                out.flush();
+            }
+        } catch (InterruptedException | IOException e) {
+            // connection closed
+        }
+    }
+
+    // Runs on the publishing table's worker: only close the transport here,
+    // the reader side notices and leaves the table normally.
+    private void onSlowConsumer() {
+        System.out.println("Slow consumer disconnected: " + playerId + " (total: " + OutboundQueue.getSlowConsumerDisconnects() + ")");
+        closeTransport();
+    }
+
+    public void onConnected() {
+        // Take a seat at a table with a free seat
+        gameRoom = tableManager.seat(this);
+        ServerMetrics.connectionOpened();
+        newSession();
+        // Queued behind the join, so the greeting follows the table's join notice
+        gameRoom.submit(() -> {
+            send(ServerMessage.welcome(playerId, balance, gameRoom.getTableId()));
+            send(ServerMessage.session(sessionToken));
+        });
+    }
+
+    private void newSession() {
+        byte[] random = new byte[16];
+        TOKENS.nextBytes(random);
+        sessionToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        tableManager.registerSession(sessionToken, this);
+    }
+
+    public void onDisconnected() {
+        System.out.println("Connection Closed: " + playerId);
+        disconnected();
+        outbound.close();
+    }
+
+    // Connection lost: hold the seat for the resume grace period (the engine stands and sits out
+    // for us meanwhile), or give it up now
+    private void disconnected() {
+        if (gameRoom == null) return;
+        ServerMetrics.connectionClosed();
+        if (spectating != null) { // no seat to hold
+            endSession();
+            return;
+        }
+        long grace = tableManager.getResumeGraceMillis();
+        synchronized (this) {
+            if (sessionState == RESUMED) return; // a new connection owns the seat now
+            sessionState = grace > 0 ? PARKED : CLOSED;
+        }
+        if (grace <= 0) {
+            endSession();
+            return;
+        }
+        gameRoom.playerAway(this);
+        tableManager.schedule(this::expireSession, grace);
+    }
+
+    private void expireSession() {
+        synchronized (this) {
+            if (sessionState != PARKED) return;
+            sessionState = CLOSED;
+        }
+        endSession();
+    }
+
+    // Gives up the seat and the account for good
+    private void endSession() {
+        GameRoom room = gameRoom;
+        tableManager.endSession(sessionToken, this);
+        leaveTable(room);
+        // After the leave, so a refund or forfeit is in the ledger before the account can log in again
+        room.submit(() -> {
+            if (loggedIn) tableManager.getLedger().logout(playerId);
+        });
+    }
+
+    // Takes over the seat, bet, cards and balance of a dropped (or half-open) connection.
+    // Runs on this connection's table worker.
+    private void resume(String token) {
+        if (gameRoom.isInRound(this) || loggedIn) {
+            sendMessage("ERROR: Resume before betting or logging in.");
+            return;
+        }
+        ClientHandlerB previous = tableManager.takeSession(token);
+        if (previous == null || previous == this) {
+            sendMessage("ERROR: Unknown or expired session.");
+            return;
+        }
+        boolean wasConnected;
+        synchronized (previous) {
+            if (previous.sessionState == CLOSED || previous.sessionState == RESUMED) {
+                sendMessage("ERROR: Unknown or expired session.");
+                return;
+            }
+            wasConnected = previous.sessionState == CONNECTED;
+            previous.sessionState = RESUMED;
+        }
+        if (wasConnected) previous.closeTransport(); // the old link is still open on our side
+
+        // Give up the seat this connection was handed on connect, then sit in the held one. The
+        // takeover is queued behind the leave, so the two tables never touch this player at once.
+        tableManager.endSession(sessionToken, this);
+        GameRoom from = gameRoom;
+        GameRoom to = previous.gameRoom;
+        leaveTable(from);
+        gameRoom = to;
+        from.submit(() -> {
+            to.resume(previous, this, () -> takeOver(previous));
+            to.submit(() -> {
+                newSession();
+                send(ServerMessage.session(sessionToken));
+            });
+        });
+    }
+
+    // Runs on the table's worker, so the engine is not touching either player meanwhile
+    private void takeOver(ClientHandlerB previous) {
+        playerId = previous.playerId;
+        balance = previous.balance;
+        currentBet = previous.currentBet;
+        isBetPlaced = previous.isBetPlaced;
+        isSurrender = previous.isSurrender;
+        loggedIn = previous.loggedIn;
+        hand.clear();
+        for (int i = 0; i < previous.hand.size(); i++) {
+            hand.add(previous.hand.get(i));
+        }
+    }
+
+    // Gives up the seat at `room`, or stops watching it
+    private void leaveTable(GameRoom room) {
+        SpectatorFanout.Subscription s = spectating;
+        if (s != null) {
+            spectating = null;
+            tableManager.unwatch(s);
+        } else {
+            tableManager.leave(this, room);
+        }
+    }
+
+    private void closeTransport() {
+        if (connection != null) {
+            connection.closeLater();
+        } else {
             try { socket.close(); } catch (Exception e) {}
         }
     }
 
+    public void handleCommand(String inputLine) {
+        // Parse Protocol (Format: "COMMAND:DATA")
+        String[] parts = inputLine.split(":", 2);
+        String command = parts[0];
+        String data = parts.length > 1 ? parts[1] : "";
+
+        if (command.equals("START")) { // ★ Game Start Command
+            ServerMetrics.command(ServerMetrics.CMD_START);
+            if (!refusePlay()) gameRoom.startGame();
+        
+        } else if (command.equals("PLACE_BET")) {
+            ServerMetrics.command(ServerMetrics.CMD_PLACE_BET);
+            try {
+                int amount = Integer.parseInt(data);
+                if (!refusePlay()) gameRoom.placeBet(this, amount);
+            } catch (NumberFormatException e) {
+                sendMessage("ERROR: Invalid bet amount.");
+            }
+        } else if (command.equals("PLAYER_ACTION")) {
+            ServerMetrics.command(ServerMetrics.CMD_PLAYER_ACTION);
+            if (!refusePlay()) gameRoom.handlePlayerAction(this, data);
+        } else if (command.equals("BALANCE")) { // Added for completeness
+            ServerMetrics.command(ServerMetrics.CMD_BALANCE);
+            gameRoom.submit(this::sendBalance);
+        } else if (command.equals("RESUME")) {
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            submitResume(data);
+        } else if (command.equals("LOGIN")) {
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            submitLogin(data);
+        } else if (command.equals("BOT_PLAY")) { // BOT_PLAY:<rounds>:<bet>:<policy>
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            String[] args = data.split(":", 3);
+            try {
+                submitBotPlay(Integer.parseInt(args[0]), Integer.parseInt(args[1]), args.length > 2 ? args[2] : "basic");
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                sendMessage("ERROR: Usage: BOT_PLAY:<rounds>:<bet>:<strategy or chart>");
+            }
+        } else if (command.equals("LIST_TABLES")) { // LIST_TABLES[:<page>]
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            try {
+                send(tableManager.lobby(data.isEmpty() ? 0 : Integer.parseInt(data)));
+            } catch (NumberFormatException e) {
+                sendMessage("ERROR: Usage: LIST_TABLES[:<page>]");
+            }
+        } else if (command.equals("JOIN_TABLE")) { // JOIN_TABLE:<table>
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            try {
+                submitJoinTable(Integer.parseInt(data));
+            } catch (NumberFormatException e) {
+                sendMessage("ERROR: Usage: JOIN_TABLE:<table>");
+            }
+        } else if (command.equals("QUICK_SEAT")) { // QUICK_SEAT[:<bet>]
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            try {
+                submitQuickSeat(data.isEmpty() ? 0 : Integer.parseInt(data));
+            } catch (NumberFormatException e) {
+                sendMessage("ERROR: Usage: QUICK_SEAT[:<bet>]");
+            }
+        } else if (command.equals("SPECTATE")) { // SPECTATE:<table>
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            try {
+                submitSpectate(Integer.parseInt(data));
+            } catch (NumberFormatException e) {
+                sendMessage("ERROR: Usage: SPECTATE:<table>");
+            }
+        } else if (command.equals("PROTOCOL") && data.equals("BINARY")) {
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+            synchronized (sendLock) {
+                enqueue(Frames.line(WireProtocol.NEGOTIATE_LINE));
+                binary = true;
+            }
+        } else {
+            ServerMetrics.command(ServerMetrics.CMD_OTHER);
+        }
+    }
+
+    // Binary-mode counterpart of handleCommand (body = opcode + payload)
+    public void handleFrame(ByteBuffer body) {
+        byte opcode = body.get();
+        switch (opcode) {
+            case WireProtocol.START:
+                ServerMetrics.command(ServerMetrics.CMD_START);
+                if (!refusePlay()) gameRoom.startGame();
+                break;
+            case WireProtocol.PLACE_BET:
+                ServerMetrics.command(ServerMetrics.CMD_PLACE_BET);
+                if (!refusePlay()) gameRoom.placeBet(this, body.getInt());
+                break;
+            case WireProtocol.PLAYER_ACTION: {
+                ServerMetrics.command(ServerMetrics.CMD_PLAYER_ACTION);
+                byte action = body.get();
+                if (action >= 0 && action <= WireProtocol.ACTION_SURRENDER && !refusePlay()) {
+                    gameRoom.handlePlayerAction(this, WireProtocol.actionName(action));
+                }
+                break;
+            }
+            case WireProtocol.BALANCE:
+                ServerMetrics.command(ServerMetrics.CMD_BALANCE);
+                gameRoom.submit(this::sendBalance);
+                break;
+            case WireProtocol.LOGIN:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                submitLogin(WireProtocol.readId(body));
+                break;
+            case WireProtocol.RESUME:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                submitResume(WireProtocol.readId(body));
+                break;
+            case WireProtocol.BOT_PLAY: {
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                int rounds = body.getInt();
+                int bet = body.getInt();
+                submitBotPlay(rounds, bet, WireProtocol.readId(body));
+                break;
+            }
+            case WireProtocol.SPECTATE:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                submitSpectate(body.getShort() & 0xFFFF);
+                break;
+            case WireProtocol.LIST_TABLES:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                send(tableManager.lobby(body.getShort() & 0xFFFF));
+                break;
+            case WireProtocol.JOIN_TABLE:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                submitJoinTable(body.getShort() & 0xFFFF);
+                break;
+            case WireProtocol.QUICK_SEAT:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                submitQuickSeat(body.getInt());
+                break;
+            default:
+                ServerMetrics.command(ServerMetrics.CMD_OTHER);
+                sendMessage("ERROR: Unknown command.");
+        }
+    }
+
+    // LOGIN, RESUME and BALANCE read or change the game state, so they run on the table's worker
+    private void submitLogin(String name) {
+        gameRoom.submit(() -> login(name));
+    }
+
+    private void submitResume(String token) {
+        gameRoom.submit(() -> resume(token));
+    }
+
+    // Checked on the connection's thread; a bot table only plays BOT_PLAY batches and a spectator
+    // has no seat to play from
+    private boolean refusePlay() {
+        SpectatorFanout.Subscription s = spectating;
+        if (s != null) {
+            sendMessage("ERROR: You are watching table #" + s.getRoom().getTableId() + ". (Spectators can't play.)");
+            return true;
+        }
+        if (!gameRoom.isBotTable()) return false;
+        sendMessage("ERROR: This is a bot table. Send BOT_PLAY:<rounds>:<bet>:<strategy or chart>.");
+        return true;
+    }
+
+    // JOIN_TABLE and QUICK_SEAT run on the current table's worker, like SPECTATE; the seat at
+    // the new table is taken in the lobby's index before the old one is given up
+    private void submitJoinTable(int tableId) {
+        gameRoom.submit(() -> joinTable(tableId));
+    }
+
+    private void submitQuickSeat(int bet) {
+        gameRoom.submit(() -> quickSeat(bet));
+    }
+
+    private void joinTable(int tableId) {
+        if (gameRoom.isInRound(this)) {
+            sendMessage("ERROR: Finish the round before changing tables.");
+            return;
+        }
+        GameRoom to = tableManager.findTable(tableId);
+        if (to == null) {
+            sendMessage("ERROR: There is no table #" + tableId + ".");
+            return;
+        }
+        if (to == gameRoom && spectating == null) {
+            sendMessage("ERROR: You are already at table #" + tableId + ".");
+            return;
+        }
+        if (!tableManager.reserveSeat(to)) {
+            sendMessage("ERROR: Table #" + tableId + " is full.");
+            return;
+        }
+        moveTo(to);
+    }
+
+    // The fullest table with a free seat at the stakes that allow `bet` (any = the first stakes)
+    private void quickSeat(int bet) {
+        if (gameRoom.isInRound(this)) {
+            sendMessage("ERROR: Finish the round before changing tables.");
+            return;
+        }
+        int level = bet <= 0 ? 0 : tableManager.levelFor(bet);
+        if (level < 0) {
+            sendMessage("ERROR: No table takes bets of " + bet + ".");
+            return;
+        }
+        // Already playing at these stakes: only move to a fuller table, never to a new empty one
+        boolean seatedHere = spectating == null && gameRoom.getStakes() == tableManager.getStakes()[level] && !gameRoom.isBotTable();
+        GameRoom to = seatedHere ? tableManager.findSeat(level) : tableManager.quickSeat(level);
+        if (to == null || (seatedHere && tableManager.seatsTaken(to) <= tableManager.seatsTaken(gameRoom))) {
+            if (to != null) tableManager.releaseSeat(to); // this seat was as good already
+            sendMessage("INFO: You are already at the best table for these stakes (#" + gameRoom.getTableId() + ").");
+            return;
+        }
+        moveTo(to);
+    }
+
+    // A seat at `to` is already taken for this player
+    private void moveTo(GameRoom to) {
+        boolean wasSpectating = spectating != null;
+        leaveTable(gameRoom);
+        gameRoom = to;
+        to.join(this);
+        to.submit(() -> {
+            send(ServerMessage.welcome(playerId, balance, to.getTableId()));
+            if (wasSpectating) { // spectating ended the old session
+                newSession();
+                send(ServerMessage.session(sessionToken));
+            }
+        });
+    }
+
+    private void submitSpectate(int tableId) {
+        gameRoom.submit(() -> spectate(tableId));
+    }
+
+    // Runs on the current table's worker. Gives up the seat (a spectator has none, so nothing is
+    // left to resume either) and starts streaming the other table; see SpectatorFanout.
+    private void spectate(int tableId) {
+        if (gameRoom.isInRound(this)) {
+            sendMessage("ERROR: Finish the round before spectating.");
+            return;
+        }
+        GameRoom to = tableManager.findTable(tableId);
+        if (to == null) {
+            sendMessage("ERROR: There is no table #" + tableId + ".");
+            return;
+        }
+        if (spectating != null && spectating.getRoom() == to) return;
+        if (spectating == null) tableManager.endSession(sessionToken, this);
+        leaveTable(gameRoom);
+        gameRoom = to;
+        sendMessage("INFO: Watching table #" + tableId + ". (The first TABLE line is where it stands now.)");
+        spectating = tableManager.watch(to, this);
+    }
+
+    private void submitBotPlay(int rounds, int bet, String policyText) {
+        BotBatch batch;
+        try {
+            batch = new BotBatch(this, rounds, bet, DecisionTable.parse(policyText));
+        } catch (IllegalArgumentException e) {
+            sendMessage("ERROR: " + e.getMessage());
+            return;
+        }
+        gameRoom.submit(() -> botPlay(batch));
+    }
+
+    // Runs on the table's worker. The first BOT_PLAY moves the bot to a table of its own; later
+    // ones queue up there (see GameRoom.playBots).
+    private void botPlay(BotBatch batch) {
+        if (gameRoom.isBotTable()) {
+            gameRoom.playBots(batch);
+            return;
+        }
+        if (gameRoom.isInRound(this)) {
+            sendMessage("ERROR: Finish the round before BOT_PLAY.");
+            return;
+        }
+        GameRoom from = gameRoom;
+        GameRoom to = tableManager.openBotTable();
+        // No bet is riding, so leaving `from` doesn't touch this player's state and the join can
+        // be queued at `to` right away, ahead of any command sent after this one
+        leaveTable(from);
+        gameRoom = to;
+        to.join(this);
+        to.playBots(batch);
+    }
+
+    private void sendBalance() {
+        send(ServerMessage.balance(WireProtocol.BALANCE_QUERY, balance));
+    }
+
+    // Switches this connection from its temporary ID to a ledger account (between rounds only)
+    private void login(String name) {
+        if (loggedIn) {
+            sendMessage("ERROR: Already logged in as " + playerId + ".");
+            return;
+        }
+        if (gameRoom.isInRound(this)) {
+            sendMessage("ERROR: Log in between rounds.");
+            return;
+        }
+        if (!isValidAccountName(name)) {
+            sendMessage("ERROR: Invalid name. (letters, digits and _; up to 16)");
+            return;
+        }
+        int stored = tableManager.getLedger().login(name, balance);
+        if (stored < 0) {
+            sendMessage("ERROR: " + name + " is already connected.");
+            return;
+        }
+        String oldId = playerId;
+        playerId = name;
+        balance = stored;
+        loggedIn = true;
+        gameRoom.accountChanged(this);
+        if (spectating == null) gameRoom.broadcast("SERVER_MSG: Player [" + oldId + "] logged in as [" + name + "].");
+        gameRoom.submit(() -> send(ServerMessage.welcome(playerId, balance, gameRoom.getTableId()))); // after the broadcast
+    }
+
+    // "Player###" stays reserved for guests and "dealer" for the dealer's EVT records
+    private static boolean isValidAccountName(String name) {
+        if (name.isEmpty() || name.length() > 16 || name.startsWith("Player") || name.equals("dealer")) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c == '_' || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) return false;
+        }
+        return true;
+    }
+
     public void sendMessage(String msg) {
-        if (out != null) out.println(msg);
+        send(ServerMessage.log(msg));
     }
 
+    // The message's frames are shared with other recipients; only a duplicate view is queued
+    public void send(ServerMessage msg) {
+        synchronized (sendLock) {
+            enqueue(binary ? msg.binaryFrame() : msg.textFrame());
+        }
+    }
+
+    private void enqueue(ByteBuffer frame) {
+        if (outbound.offer(frame.duplicate()) && connection != null) {
+            connection.requestFlush();
+        }
+    }
+
+    public boolean isBinary() { return binary; }
+
+    OutboundQueue getOutbound() { return outbound; }
+
     public void resetRound() {
-        this.cards.clear();
+        hand.clear();
         this.currentBet = 0;
         this.isBetPlaced = false; // Reset
         this.isSurrender = false; // Reset
@@ -82,23 +633,31 @@ public class ClientHandlerB implements Runnable {
     public boolean isBetPlaced() { return isBetPlaced; }
     public void setBetPlaced(boolean placed) { this.isBetPlaced = placed; }
     
+    public boolean isAway() { return away; }
+    public void setAway(boolean away) { this.away = away; }
+
     public boolean isSurrender() { return isSurrender; }
     public void setSurrender(boolean surrender) { this.isSurrender = surrender; }
 
     // Getter/Setter
     public String getPlayerId() { return playerId; }
+    public GameRoom getGameRoom() { return gameRoom; }
     public int getBalance() { return balance; }
-    public void decreaseBalance(int amount) { this.balance -= amount; }
     public int getCurrentBet() { return currentBet; }
     public void setCurrentBet(int amount) { this.currentBet = amount; }
-    public void increaseBalance(int amount) { this.balance += amount; }
+
+    // RoundEngine debits the bet before marking it placed, so a debit after that is a double down;
+    // a credit to a surrendered hand is the half-bet refund.
+    public void decreaseBalance(int amount) {
+        this.balance -= amount;
+        if (loggedIn) tableManager.getLedger().record(isBetPlaced ? Ledger.DOUBLE : Ledger.BET, playerId, amount, balance);
+    }
+
+    public void increaseBalance(int amount) {
+        this.balance += amount;
+        if (loggedIn) tableManager.getLedger().record(isSurrender ? Ledger.REFUND : Ledger.PAYOUT, playerId, amount, balance);
+    }
     
     // 카드 관련 메서드
-    public List<Card> getCards() { return cards; }
-    public void addCard(Card card) { this.cards.add(card); }
-    public int getScore() { return BlackjackScoreCalculator.calculateScore(cards); }
-    public void resetScoreOnly() { this.cards.clear(); }
-    public boolean isSoftHand() { return BlackjackScoreCalculator.isSoftHand(cards); }
-    public boolean isBust() { return BlackjackScoreCalculator.isBust(cards); }
-    public boolean isBlackjack() { return BlackjackScoreCalculator.isBlackjack(cards); }
+    public Hand getHand() { return hand; }
 }
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Compares platform threads and virtual threads for ClientHandlerB at increasing connection counts.
+ *
+ * Usage: java ConnectionScalingBenchmark [counts...]   (default: 1000 10000 50000)
+ *
+ * Every simulated connection gets its own one-seat table so the numbers measure the execution model,
+ * not table fan-out. The client side is a single NIO selector so it doesn't need N threads itself.
+ * Large counts need a raised file descriptor limit (two sockets per connection in one process).
+ */
+public class ConnectionScalingBenchmark {
+    private static final byte[] BALANCE_CMD = "BALANCE\n".getBytes(StandardCharsets.US_ASCII);
+    // Lines a connection receives on connect: join notice, WELCOME + EVT, SESSION + EVT
+    private static final int CONNECT_LINES = 5;
+    // ... and for one BALANCE query: the line + EVT
+    private static final int BALANCE_LINES = 2;
+
+    public static void main(String[] args) throws Exception {
+        int[] counts = {1000, 10000, 50000};
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) counts[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.println("mode      conns   connect(ms)  roundtrip(ms)  cmds/s     heap(MB)  platformThreads");
+        for (int n : counts) {
+            for (String mode : new String[] {"thread", "virtual"}) {
+                try {
+                    run(mode, n);
+                } catch (IOException e) {
+                    System.out.printf("%-8s %6d   failed: %s%n", mode, n, e.getMessage());
+                }
+                System.gc();
+                Thread.sleep(500);
+            }
+        }
+    }
+
+    private static void run(String mode, int n) throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0, 4096);
+        int port = serverSocket.getLocalPort();
+        ExecutorService handlers = BlackjackServer.newHandlerExecutor(mode);
+        TableManager tables = new TableManager(1, 0);
+
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket s = serverSocket.accept();
+                    handlers.execute(new ClientHandlerB(s, tables));
+                }
+            } catch (IOException e) {
+                // closed at the end of the run
+            }
+        });
+        acceptor.start();
+
+        List<SocketChannel> clients = new ArrayList<>(n);
+        Selector selector = Selector.open();
+        try {
+            // 1. Connection setup
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                SocketChannel ch = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+                ch.configureBlocking(false);
+                ch.register(selector, SelectionKey.OP_READ, new int[1]);
+                clients.add(ch);
+            }
+            // Wait until every connection has its WELCOME and SESSION
+            awaitLines(selector, n, CONNECT_LINES);
+            long connectNanos = System.nanoTime() - t0;
+
+            // 2. One command round trip on every connection
+            long t1 = System.nanoTime();
+            for (SocketChannel ch : clients) {
+                ch.write(ByteBuffer.wrap(BALANCE_CMD));
+            }
+            awaitLines(selector, n, CONNECT_LINES + BALANCE_LINES);
+            long rtNanos = System.nanoTime() - t1;
+
+            Runtime rt = Runtime.getRuntime();
+            long heapMb = (rt.totalMemory() - rt.freeMemory()) / (1024 * 1024);
+            System.out.printf("%-8s %6d   %10.1f  %13.1f  %9.0f  %8d  %15d%n",
+                    mode, n, connectNanos / 1e6, rtNanos / 1e6, n / (rtNanos / 1e9), heapMb, Thread.activeCount());
+        } finally {
+            for (SocketChannel ch : clients) {
+                try { ch.close(); } catch (IOException e) {}
+            }
+            selector.close();
+            serverSocket.close();
+            handlers.shutdown();
+            acceptor.join();
+        }
+    }
+
+    // Reads until every connection has received at least `target` lines in total
+    private static void awaitLines(Selector selector, int n, int target) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+        int done = 0;
+        for (SelectionKey key : selector.keys()) {
+            if (((int[]) key.attachment())[0] >= target) done++;
+        }
+        while (done < n) {
+            if (selector.select(10_000) == 0) {
+                throw new IOException("timed out with " + done + "/" + n + " connections ready");
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                int[] lines = (int[]) key.attachment();
+                SocketChannel ch = (SocketChannel) key.channel();
+                buf.clear();
+                int r = ch.read(buf);
+                if (r < 0) throw new IOException("server closed a connection");
+                int before = lines[0];
+                for (int i = 0; i < r; i++) {
+                    if (buf.get(i) == '\n') lines[0]++;
+                }
+                if (before < target && lines[0] >= target) done++;
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * A bot's whole playing policy as a chart, sent once with BOT_PLAY instead of one command per decision.
+ *
+ * The chart is 250 letters: 16 rows for hard totals 5-20, then 9 rows for soft totals 12-20, each
+ * row 10 letters for the dealer's up card 2, 3, ..., 10, A. (A pair of twos, hard 4, uses the
+ * hard 5 row; 21 always stands.) Letters:
+ *   H hit   S stand   D double, else hit   d double, else stand   R surrender, else hit   r surrender, else stand
+ * "Else" applies after the first two cards, and also to a double the balance can't cover.
+ * Instead of a chart a policy can name a built-in PlayerStrategy (basic, mimic-dealer, never-bust).
+ */
+public final class DecisionTable implements PlayerStrategy {
+    private static final int UP_CARDS = 10;
+    private static final int HARD_FIRST = 5, HARD_LAST = 20;
+    private static final int SOFT_FIRST = 12, SOFT_LAST = 20;
+    private static final int HARD_ROWS = HARD_LAST - HARD_FIRST + 1;
+    public static final int CHART_LENGTH = (HARD_ROWS + SOFT_LAST - SOFT_FIRST + 1) * UP_CARDS;
+
+    private final byte[] chart; // the letters, by row then up card
+
+    private DecisionTable(byte[] chart) {
+        this.chart = chart;
+    }
+
+    /** A built-in strategy name or a chart; throws IllegalArgumentException with a reason otherwise. */
+    public static PlayerStrategy parse(String policy) {
+        if (policy.length() != CHART_LENGTH) {
+            try {
+                return PlayerStrategy.byName(policy);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Policy must be basic, mimic-dealer, never-bust or a " + CHART_LENGTH + "-letter chart.");
+            }
+        }
+        byte[] chart = new byte[CHART_LENGTH];
+        for (int i = 0; i < CHART_LENGTH; i++) {
+            char c = policy.charAt(i);
+            if ("HSDdRr".indexOf(c) < 0) throw new IllegalArgumentException("Bad letter '" + c + "' in chart at " + i);
+            chart[i] = (byte) c;
+        }
+        return new DecisionTable(chart);
+    }
+
+    /** The chart form of any strategy, e.g. to send a built-in one as a starting point. */
+    public static String chartOf(PlayerStrategy strategy) {
+        StringBuilder sb = new StringBuilder(CHART_LENGTH);
+        for (int total = HARD_FIRST; total <= HARD_LAST; total++) {
+            for (int up = 0; up < UP_CARDS; up++) sb.append(letter(strategy, hardHand(total), up));
+        }
+        for (int total = SOFT_FIRST; total <= SOFT_LAST; total++) {
+            for (int up = 0; up < UP_CARDS; up++) sb.append(letter(strategy, softHand(total), up));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public byte decide(Hand hand, Card dealerUpCard) {
+        if (hand.getScore() >= 21) return WireProtocol.ACTION_STAND;
+        boolean firstTwo = hand.size() == 2;
+        switch (letterFor(hand, dealerUpCard)) {
+            case 'S': return WireProtocol.ACTION_STAND;
+            case 'D': return firstTwo ? WireProtocol.ACTION_DOUBLE_DOWN : WireProtocol.ACTION_HIT;
+            case 'd': return firstTwo ? WireProtocol.ACTION_DOUBLE_DOWN : WireProtocol.ACTION_STAND;
+            case 'R': return firstTwo ? WireProtocol.ACTION_SURRENDER : WireProtocol.ACTION_HIT;
+            case 'r': return firstTwo ? WireProtocol.ACTION_SURRENDER : WireProtocol.ACTION_STAND;
+            default: return WireProtocol.ACTION_HIT;
+        }
+    }
+
+    // The chart says it directly: "d" stands, "D" hits
+    @Override
+    public byte decideWithoutDouble(Hand hand, Card dealerUpCard) {
+        return letterFor(hand, dealerUpCard) == 'd' ? WireProtocol.ACTION_STAND : WireProtocol.ACTION_HIT;
+    }
+
+    private byte letterFor(Hand hand, Card dealerUpCard) {
+        int score = hand.getScore();
+        int up = dealerUpCard.isAce() ? UP_CARDS - 1 : dealerUpCard.getValue() - 2;
+        int row = hand.isSoft() && score >= SOFT_FIRST ? HARD_ROWS + score - SOFT_FIRST : Math.max(score, HARD_FIRST) - HARD_FIRST;
+        return chart[row * UP_CARDS + up];
+    }
+
+    // What `strategy` does on a two-card hand, with the "else" it takes on three cards
+    private static char letter(PlayerStrategy strategy, Hand twoCards, int up) {
+        Card upCard = Card.of(up == UP_CARDS - 1 ? 0 : up + 1);
+        byte first = strategy.decide(twoCards, upCard);
+        if (first == WireProtocol.ACTION_HIT) return 'H';
+        if (first == WireProtocol.ACTION_STAND) return 'S';
+        Hand three = withThirdCard(twoCards);
+        boolean elseStand = three != null && strategy.decide(three, upCard) == WireProtocol.ACTION_STAND;
+        if (first == WireProtocol.ACTION_DOUBLE_DOWN) return elseStand ? 'd' : 'D';
+        return elseStand ? 'r' : 'R';
+    }
+
+    // Two cards adding up to a hard `total` (5-20); no ace
+    private static Hand hardHand(int total) {
+        int high = Math.min(10, total - 2);
+        return hand(high, total - high);
+    }
+
+    // An ace and one other card
+    private static Hand softHand(int total) {
+        return hand(1, total - 11);
+    }
+
+    // The same total in three cards (an extra 2 taken out of the larger card), or null if impossible
+    static Hand withThirdCard(Hand two) {
+        int a = two.get(0).getValue();
+        int b = two.get(1).getValue();
+        if (a == 1) {
+            return b >= 4 ? hand(1, b - 2, 2) : null;
+        }
+        int hi = Math.max(a, b), lo = Math.min(a, b);
+        return hi >= 4 ? hand(hi - 2, lo, 2) : null;
+    }
+
+    // Cards by value, 1 = ace, 10 = ten
+    private static Hand hand(int... values) {
+        Hand hand = new Hand();
+        for (int v : values) hand.add(Card.of(v - 1));
+        return hand;
+    }
+}
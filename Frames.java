@@ -0,0 +1,15 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes an outbound line once into an immutable buffer.
+ * A broadcast hands the same bytes to every recipient; each OutboundQueue only gets its own
+ * duplicate() view (position/limit), so the content is never copied or re-encoded per player.
+ */
+public final class Frames {
+    private Frames() {}
+
+    public static ByteBuffer line(String msg) {
+        return ByteBuffer.wrap((msg + "\n").getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+}
@@ -1,271 +1,545 @@
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * One table: RoundEngine plays the rules, GameRoom turns its events into ServerMessages.
+ *
+ * The table is an actor. Every command is a task in the table's mailbox (a lock-free MPSC
+ * queue); one worker at a time drains it, so the engine and the seated players' game state are
+ * only ever touched by that worker and need no lock. Callers (connection threads, the event
+ * loop, timers) just enqueue and return. After each task the engine's events are published
+ * right away on the same worker, so they go out in mailbox order. Tables share a small worker
+ * pool; a table gives its worker back after BATCH tasks so a busy table can't starve the rest.
+ *
+ * A player who doesn't act within the turn timeout stands, and one who doesn't bet within the
+ * betting timeout sits the round out. The deadlines are (re)armed after every task from the
+ * engine's sequence numbers, so no command path has to remember them.
+ *
+ * A bot table (forBots) seats one bot and plays its BOT_PLAY batches: rounds run back to back on
+ * the worker with the bot's policy making every decision, no pacing and no deadlines, and only
+ * the batch totals are sent. A long batch is played BOT_CHUNK rounds per task.
+ *
+ * Spectators read the table's TableStream: every broadcast is also appended there (only while
+ * someone watches), plus a TABLE_VIEW keyframe whenever the phase or the seats change. The worker
+ * never sends to a spectator itself; SpectatorFanout does, off the table's path.
+ *
+ * Each table has stakes (bets outside them are refused before they reach the engine) and keeps a
+ * running hands-per-hour figure for the lobby.
+ */
 public class GameRoom {
-    private List<ClientHandlerB> players = new ArrayList<>();
-    private int currentPlayerIndex = 0;
-    private boolean isGameStarted = false;
-    private boolean isBettingPhase = false;
+    // Fixed lines are encoded once per process and shared by every table
+    private static final ServerMessage BET_PROMPT = ServerMessage.log("INFO: Please place your bet. (e.g., BET 100)");
+    private static final ServerMessage BLACKJACK_INFO = ServerMessage.log("INFO: Blackjack! (21 points)");
+    private static final ServerMessage SOFT_HAND_INFO = ServerMessage.log("INFO: Soft Hand (Ace can be 11)");
+    private static final ServerMessage SOFT_HIT_INFO = ServerMessage.log("INFO: Soft Hand - You can hit safely!");
+    private static final ServerMessage RESULTS_HEADER = ServerMessage.log("--- [Final Results] ---");
+    private static final ServerMessage SHUFFLE_INFO = ServerMessage.log("INFO: Cut card reached. Shuffling the shoe.");
+    private static final ServerMessage SAT_OUT_INFO = ServerMessage.log("INFO: No bet in time - you sit out this round.");
+    private static final ServerMessage NO_BETS_INFO = ServerMessage.log("INFO: Betting time is over and nobody bet. Send START to play again.");
+    private static final ServerMessage[] ERRORS = {
+            ServerMessage.log("ERROR: It is not betting time."),
+            ServerMessage.log("ERROR: You have already placed a bet."),
+            ServerMessage.log("ERROR: Insufficient balance."),
+            ServerMessage.log("ERROR: Game is not in progress."),
+            ServerMessage.log("ERROR: It is the dealer's turn."),
+            null, // not your turn: names the current player
+            ServerMessage.log("ERROR: Insufficient balance for Double Down."),
+    };
 
-    // Dealer Information
-    private List<Card> dealerCards = new ArrayList<>();
+    private static final int BATCH = 64; // tasks per turn on a worker
+    private static final int BOT_CHUNK = 256; // bot rounds per task
 
-    public synchronized void join(ClientHandlerB player) {
-        players.add(player);
-        broadcast("SERVER_MSG: Player [" + player.getPlayerId() + "] joined. (Total: " + players.size() + ")");
+    // A mailbox entry; the enqueue time feeds the mailbox wait histogram
+    private static final class Task {
+        final Runnable body;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(Runnable body) {
+            this.body = body;
+        }
     }
 
-    public synchronized void leave(ClientHandlerB player) {
-        players.remove(player);
-        broadcast("SERVER_MSG: Player [" + player.getPlayerId() + "] left.");
+    private final ConcurrentLinkedQueue<Task> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(); // true while a drain is queued or running
+    private final Executor workers;
+
+    // Everything below is owned by the worker draining the mailbox
+    private final int tableId;
+    private final RoundEngine engine; // shoe seeded per table (see Shoe.forTable)
+    private long roundStartedAt;
+
+    // Dealer pacing and deadlines run on a shared wheel; the wheel only enqueues tasks here
+    private final TimerWheel timers; // null = no pacing and no deadlines (benchmarks, bot tables)
+    private final long dealerDelayMillis; // 0 = no pacing (bot / simulation tables)
+    private final boolean botTable;
+    private final Stakes stakes;
+    private int slot = -1; // in TableManager's SeatIndex; set by SeatIndex.add before the table can be found
+    private volatile boolean closed; // retired by TableManager; spectators can't start watching any more
+    private final ArrayDeque<BotBatch> botBatches = new ArrayDeque<>(); // head is being played
+
+    // Spectators' stream; keyframes are written when the view changes shape
+    private final TableStream stream = new TableStream();
+    private byte streamPhase;
+    private TablePlayer[] streamSeats; // null until the first spectator's keyframe
+
+    // Written on the worker at each round's end, read by the lobby
+    private volatile long lastHandAt;       // millis
+    private volatile long handIntervalMillis; // moving average between round ends; 0 = fewer than two rounds
+
+    // Deadlines; 0 = wait forever
+    private long turnTimeoutMillis;
+    private long betTimeoutMillis;
+    private TimerWheel.Timeout turnDeadline;
+    private long turnDeadlineSeq = -1;    // engine decision the deadline was armed for
+    private TimerWheel.Timeout betDeadline;
+    private long betDeadlineSeq = -1;
+
+    public GameRoom(int tableId, Executor workers, TimerWheel timers, long dealerDelayMillis) {
+        this(tableId, workers, timers, dealerDelayMillis, Stakes.ANY, false);
     }
 
-    public synchronized void broadcast(String msg) {
-        for (ClientHandlerB p : players) {
-            p.sendMessage(msg);
-        }
+    public GameRoom(int tableId, Executor workers, TimerWheel timers, long dealerDelayMillis, Stakes stakes) {
+        this(tableId, workers, timers, dealerDelayMillis, stakes, false);
     }
 
-    public synchronized void startGame() {
-        if (players.size() < 1) return;
-        if (isBettingPhase || isGameStarted) return;
+    private GameRoom(int tableId, Executor workers, TimerWheel timers, long dealerDelayMillis, Stakes stakes, boolean botTable) {
+        this.tableId = tableId;
+        this.botTable = botTable;
+        this.stakes = stakes;
+        this.engine = new RoundEngine(Shoe.forTable(tableId));
+        this.workers = workers;
+        this.timers = timers;
+        this.dealerDelayMillis = dealerDelayMillis;
+    }
 
-        isBettingPhase = true;
-        isGameStarted = false;
+    /** A private table for one bot's BOT_PLAY batches. */
+    public static GameRoom forBots(int tableId, Executor workers) {
+        return new GameRoom(tableId, workers, null, 0, Stakes.ANY, true);
+    }
 
-        for (ClientHandlerB p : players) {
-            p.resetRound();
+    public int getTableId() { return tableId; }
+    public boolean isBotTable() { return botTable; }
+    public TableStream getStream() { return stream; }
+    public Stakes getStakes() { return stakes; }
+
+    /** True while `player` has a bet on a round that isn't settled yet. Call on the table's worker. */
+    public boolean isInRound(TablePlayer player) { return engine.isInRound(player); }
+
+    int getSlot() { return slot; }
+    void setSlot(int slot) { this.slot = slot; }
+
+    public boolean isClosed() { return closed; }
+    void markClosed() { closed = true; }
+
+    /** Rounds per hour lately; falls off while the table sits idle. 0 until two rounds have ended. */
+    public int getHandsPerHour() {
+        long interval = handIntervalMillis;
+        if (interval == 0) return 0;
+        interval = Math.max(interval, System.currentTimeMillis() - lastHandAt);
+        return (int) Math.min(Integer.MAX_VALUE, 3_600_000 / Math.max(1, interval));
+    }
+
+    /**
+     * Runs `task` on the table's worker after everything submitted before it. Handlers use this
+     * for anything that reads or changes their game state (balance, bet, ID) outside a command.
+     */
+    public void submit(Runnable task) {
+        mailbox.add(new Task(task));
+        if (scheduled.compareAndSet(false, true)) {
+            workers.execute(this::drain);
         }
+    }
 
-        broadcast("------------------------------------------------");
-        broadcast("GAME_PHASE: Betting Phase Started!");
-        for (ClientHandlerB p : players) {
-            p.resetRound();
-            p.sendMessage("INFO: Your current balance is [" + p.getBalance() + "].");
-            p.sendMessage("INFO: Please place your bet. (e.g., BET 100)");
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Task task = mailbox.poll();
+            if (task == null) break;
+            run(task);
+        }
+        scheduled.set(false);
+        // A task added after the last poll but before the flag was cleared would otherwise wait for the next submit
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            workers.execute(this::drain);
         }
-        broadcast("------------------------------------------------");
     }
 
-    public synchronized boolean placeBet(ClientHandlerB player, int amount) {
-        if (!isBettingPhase) {
-            player.sendMessage("ERROR: It is not betting time.");
-            return false;
+    private void run(Task task) {
+        long start = System.nanoTime();
+        ServerMetrics.mailboxWait(start - task.enqueuedAt);
+        try {
+            task.body.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // the table keeps going; its next task still runs
         }
-        if (player.isBetPlaced()) {
-            player.sendMessage("ERROR: You have already placed a bet.");
-            return false;
+        armDeadlines();
+        for (RoundEvent e : engine.drainEvents()) {
+            publish(e, engine.getSeated());
         }
-        if (player.getBalance() >= amount) {
-            player.decreaseBalance(amount);
-            player.setCurrentBet(amount);
-            player.setBetPlaced(true);
-
-            broadcast("SERVER_MSG: [" + player.getPlayerId() + "] placed a bet of " + amount + ".");
-            checkAllBets();
-            return true;
-        } else {
-            player.sendMessage("ERROR: Insufficient balance.");
-            return false;
+        if (stream.hasSubscribers() && streamSeats != null && (phase() != streamPhase || engine.getSeated() != streamSeats)) {
+            keyframe();
         }
+        ServerMetrics.tableTask(System.nanoTime() - start);
     }
 
-    private void checkAllBets() {
-        for (ClientHandlerB p : players) {
-            if (!p.isBetPlaced()) {
-                return;
-            }
+    /** Applies from the next deadline armed; 0 turns a deadline off. */
+    public void setTimeouts(long turnTimeoutMillis, long betTimeoutMillis) {
+        submit(() -> {
+            this.turnTimeoutMillis = turnTimeoutMillis;
+            this.betTimeoutMillis = betTimeoutMillis;
+        });
+    }
+
+    /** Logs this table's rounds to `history` from the next round on; null stops logging. */
+    public void recordTo(HandHistory history) {
+        submit(() -> engine.setRecorder(history != null ? history.recorder(tableId) : null));
+    }
+
+    /** Call on the table's worker after the player's ID and balance changed (login). */
+    public void accountChanged(TablePlayer player) {
+        engine.accountChanged(player);
+    }
+
+    public void join(TablePlayer player) {
+        submit(() -> engine.join(player));
+    }
+
+    public void leave(TablePlayer player) {
+        submit(() -> {
+            engine.leave(player);
+            runDealerIfDue();
+        });
+    }
+
+    /** The player's connection dropped but their seat is held (see ClientHandlerB resume). */
+    public void playerAway(TablePlayer player) {
+        submit(() -> {
+            engine.playerAway(player);
+            runDealerIfDue();
+        });
+    }
+
+    /**
+     * Puts `next` in `previous`'s seat and sends it a snapshot of the table. `handOver` copies the
+     * player state across; it runs on the table's worker, so no round event lands in between.
+     */
+    public void resume(TablePlayer previous, TablePlayer next, Runnable handOver) {
+        submit(() -> {
+            handOver.run();
+            engine.replace(previous, next);
+            next.send(snapshot(next));
+            if (engine.getCurrentPlayer() == next) next.send(ServerMessage.YOUR_TURN); // kept for it (see RoundEngine.playerAway)
+        });
+    }
+
+    /** A new spectator needs a fresh keyframe to start from (see TableStream.subscribe). */
+    public void watched() {
+        submit(this::keyframe);
+    }
+
+    private byte phase() {
+        return engine.isDealerTurn() ? WireProtocol.PHASE_DEALER
+                : engine.isGameStarted() ? WireProtocol.PHASE_PLAYING
+                : engine.isBettingPhase() ? WireProtocol.PHASE_BETTING : WireProtocol.PHASE_IDLE;
+    }
+
+    // The whole table as a spectator sees it: the hole card stays hidden until the dealer's turn
+    private void keyframe() {
+        streamPhase = phase();
+        streamSeats = engine.getSeated();
+        boolean dealt = streamPhase == WireProtocol.PHASE_PLAYING || streamPhase == WireProtocol.PHASE_DEALER;
+        Hand dealer = null;
+        if (streamPhase == WireProtocol.PHASE_DEALER) {
+            dealer = engine.getDealerHand();
+        } else if (streamPhase == WireProtocol.PHASE_PLAYING && engine.getDealerHand().size() > 0) {
+            dealer = new Hand();
+            dealer.add(engine.getDealerHand().get(0));
         }
-        startRound();
-    }
-
-    private void startRound() {
-        isBettingPhase = false;
-        isGameStarted = true;
-        currentPlayerIndex = 0;
-        dealerCards.clear();
-
-        broadcast("------------------------------------------------");
-        broadcast("ROUND_START: Betting closed! The game begins.");
-
-        // 딜러 카드 1장 뽑기
-        Card dealerCard = Card.drawRandom();
-        dealerCards.add(dealerCard);
-        int dealerScore = BlackjackScoreCalculator.calculateScore(dealerCards);
-        broadcast("INFO: Dealer's open card: [" + dealerCard.getDisplayName() + "] (Score: " + dealerScore + ")");
-
-        // 각 플레이어에게 카드 2장씩 나눠주기
-        for (ClientHandlerB p : players) {
-            p.resetScoreOnly();
-            
-            Card c1 = Card.drawRandom();
-            Card c2 = Card.drawRandom();
-            
-            p.addCard(c1);
-            p.addCard(c2);
-            
-            int playerScore = p.getScore();
-            
-            // 카드 정보 전송 (A, J, Q, K 표시 포함)
-            String cardsStr = c1.getDisplayName() + "," + c2.getDisplayName();
-            p.sendMessage("INITIAL_DEAL: Dealer=[" + dealerCard.getDisplayName() + "], Cards=[" + cardsStr + "], Total=[" + playerScore + "]");
-            
-            if (p.isBlackjack()) {
-                p.sendMessage("INFO: Blackjack! (21 points)");
-            } else if (p.isSoftHand()) {
-                p.sendMessage("INFO: Soft Hand (Ace can be 11)");
-            }
+        int[] bets = new int[streamSeats.length];
+        Hand[] hands = new Hand[streamSeats.length];
+        for (int i = 0; i < hands.length; i++) {
+            if (!engine.isInRound(streamSeats[i])) continue;
+            bets[i] = streamSeats[i].getCurrentBet();
+            if (dealt) hands[i] = streamSeats[i].getHand();
         }
-        
-        broadcast("------------------------------------------------");
-        notifyCurrentPlayer();
+        TablePlayer current = engine.getCurrentPlayer();
+        stream.appendKeyframe(ServerMessage.tableView(tableId, streamPhase, dealer,
+                current != null ? current.getPlayerId() : "", streamSeats, bets, hands));
+    }
+
+    // Where the table is, from `player`'s seat
+    private ServerMessage snapshot(TablePlayer player) {
+        byte phase = phase();
+        boolean dealt = phase == WireProtocol.PHASE_PLAYING || phase == WireProtocol.PHASE_DEALER;
+        boolean inRound = engine.isInRound(player);
+        TablePlayer current = engine.getCurrentPlayer();
+        return ServerMessage.snapshot(player.getPlayerId(), player.getBalance(),
+                inRound ? player.getCurrentBet() : 0, phase,
+                dealt ? engine.getDealerHand() : null, dealt && inRound ? player.getHand() : null,
+                current != null ? current.getPlayerId() : "");
     }
 
-    public synchronized void handlePlayerAction(ClientHandlerB player, String action) {
-        if (!isGameStarted) {
-            player.sendMessage("ERROR: Game is not in progress.");
+    public void broadcast(String msg) {
+        broadcast(ServerMessage.log(msg));
+    }
+
+    // Encoded once per protocol; every player's queue gets a view of the same bytes
+    public void broadcast(ServerMessage msg) {
+        submit(() -> broadcast(engine.getSeated(), msg));
+    }
+
+    public void startGame() {
+        submit(engine::start);
+    }
+
+    public void placeBet(TablePlayer player, int amount) {
+        if (!stakes.allows(amount)) {
+            player.send(ServerMessage.log("ERROR: Bets at table #" + tableId + " are " + stakes + "."));
             return;
         }
+        submit(() -> {
+            engine.placeBet(player, amount);
+            runDealerIfDue(); // only if everyone else is away
+        });
+    }
 
-        ClientHandlerB currentTurnPlayer = players.get(currentPlayerIndex);
-        if (!player.equals(currentTurnPlayer)) {
-            player.sendMessage("ERROR: It is not your turn. (Current turn: " + currentTurnPlayer.getPlayerId() + ")");
-            return;
+    public void handlePlayerAction(TablePlayer player, String action) {
+        byte code = WireProtocol.actionCode(action);
+        submit(() -> {
+            engine.action(player, code);
+            runDealerIfDue();
+        });
+    }
+
+    // Called after a command that may have ended the players' turns
+    private void runDealerIfDue() {
+        if (!engine.pollDealerTurn()) return;
+        if (dealerDelayMillis <= 0) {
+            while (engine.dealerStep()) {}
+        } else {
+            scheduleDealerStep();
         }
+    }
 
-        if (action.equalsIgnoreCase("Hit")) {
-            Card card = Card.drawRandom();
-            player.addCard(card);
-            
-            int playerScore = player.getScore();
-            
-            // 카드를 뽑았다고 알림
-            broadcast("ACTION: [" + player.getPlayerId() + "] Hit! (Draw: " + card.getDisplayName() + ", Score: " + playerScore + ")");
-
-            // 점수 체크
-            if (player.isBust()) {
-                broadcast("RESULT: [" + player.getPlayerId() + "] BUST! (Over 21)");
-                nextTurn();
-            } else {
-                // 21점을 안 넘었으면 다시 턴을 줌
-                if (player.isSoftHand()) {
-                    player.sendMessage("INFO: Soft Hand - You can hit safely!");
-                }
-                player.sendMessage("YOUR_TURN: Choose action (HIT, STAND, DOUBLEDOWN, SURRENDER).");
-            }
-            
-        } else if (action.equalsIgnoreCase("Stand")) {
-            broadcast("ACTION: [" + player.getPlayerId() + "] Stand. (Final Score: " + player.getScore() + ")");
-            nextTurn();
-        } else if (action.equalsIgnoreCase("DoubleDown")) {
-            if (player.getBalance() < player.getCurrentBet()) {
-                player.sendMessage("ERROR: Insufficient balance for Double Down.");
-                return;
-            }
-            int additionalBet = player.getCurrentBet();
-            player.decreaseBalance(additionalBet);
-            player.setCurrentBet(player.getCurrentBet() + additionalBet);
-            
-            Card card = Card.drawRandom();
-            player.addCard(card);
-            
-            int finalScore = player.getScore();
-            broadcast("ACTION: [" + player.getPlayerId() + "] Double Down! (Draw: " + card.getDisplayName() + ", Final Score: " + finalScore + ")");
-
-            if (player.isBust()) {
-                broadcast("RESULT: [" + player.getPlayerId() + "] BUST! (Lost)");
-            }
-            nextTurn();
+    private void scheduleDealerStep() {
+        timers.schedule(() -> submit(this::dealerStep), dealerDelayMillis);
+    }
 
-        } else if (action.equalsIgnoreCase("Surrender")) {
-            player.setSurrender(true);
-            broadcast("ACTION: [" + player.getPlayerId() + "] Surrender. (Given up)");
-            nextTurn();
+    private void dealerStep() {
+        if (engine.dealerStep()) {
+            scheduleDealerStep();
         }
     }
 
-    private void nextTurn() {
-        currentPlayerIndex++;
-        if (currentPlayerIndex >= players.size()) {
-            playDealerTurn();
-        } else {
-            notifyCurrentPlayer();
+    /** Plays `batch` after the batches queued before it; the totals go to the bot when it ends. */
+    public void playBots(BotBatch batch) {
+        submit(() -> {
+            botBatches.add(batch);
+            if (botBatches.size() == 1) playBotChunk();
+        });
+    }
+
+    private void playBotChunk() {
+        BotBatch batch = botBatches.peek();
+        batch.started();
+        for (int i = 0; i < BOT_CHUNK && batch.hasNext(); i++) {
+            playBotRound(batch);
+        }
+        if (!batch.hasNext()) {
+            botBatches.poll();
+            batch.bot.send(batch.result());
+        }
+        if (!botBatches.isEmpty()) {
+            submit(this::playBotChunk); // the rest after whatever else is in the mailbox
         }
     }
 
-    private void notifyCurrentPlayer() {
-        ClientHandlerB p = players.get(currentPlayerIndex);
-        broadcast("TURN: It is [" + p.getPlayerId() + "]'s turn.");
-        p.sendMessage("YOUR_TURN: Choose action (HIT, STAND, DOUBLEDOWN, SURRENDER).");
+    // One whole round with the engine's events counted instead of published
+    private void playBotRound(BotBatch batch) {
+        TablePlayer bot = batch.bot;
+        if (bot.isAway() || bot.getBalance() < batch.bet || engine.getSeated().length != 1 || engine.getSeated()[0] != bot) {
+            batch.stop();
+            return;
+        }
+        engine.start();
+        engine.placeBet(bot, batch.bet);
+        Card up = engine.getDealerHand().get(0);
+        while (engine.getCurrentPlayer() == bot) {
+            engine.action(bot, batch.decide(up));
+        }
+        if (engine.pollDealerTurn()) {
+            while (engine.dealerStep()) {}
+        }
+        for (RoundEvent e : engine.drainEvents()) {
+            batch.count(e);
+        }
+        batch.played();
     }
 
-    private void playDealerTurn() {
-        int dealerScore = BlackjackScoreCalculator.calculateScore(dealerCards);
-        broadcast("DEALER_TURN: All player turns ended. Dealer draws cards. (Current: " + dealerScore + ")");
-        try { Thread.sleep(1000); } catch (Exception e) {}
+    // Runs after every task: arms a deadline for a new decision or betting phase, and cancels
+    // one that is no longer needed
+    private void armDeadlines() {
+        if (timers == null) return;
+        long decision = engine.getDecisionSeq();
+        if (engine.getCurrentPlayer() == null) {
+            turnDeadline = cancel(turnDeadline);
+        } else if (decision != turnDeadlineSeq) {
+            cancel(turnDeadline);
+            turnDeadlineSeq = decision;
+            turnDeadline = turnTimeoutMillis > 0
+                    ? timers.schedule(() -> submit(() -> onTurnTimeout(decision)), turnTimeoutMillis) : null;
+        }
 
-        // 딜러는 17 이상이 될 때까지 카드를 받음 (Soft 17 포함)
-        while (dealerScore < 17) {
-            Card card = Card.drawRandom();
-            dealerCards.add(card);
-            dealerScore = BlackjackScoreCalculator.calculateScore(dealerCards);
-            broadcast("DEALER_DRAW: Dealer drew [" + card.getDisplayName() + "]. (Dealer Score: " + dealerScore + ")");
-            try { Thread.sleep(1000); } catch (Exception e) {}
+        long betting = engine.getBettingSeq();
+        if (!engine.isBettingPhase()) {
+            betDeadline = cancel(betDeadline);
+        } else if (betting != betDeadlineSeq) {
+            cancel(betDeadline);
+            betDeadlineSeq = betting;
+            betDeadline = betTimeoutMillis > 0
+                    ? timers.schedule(() -> submit(() -> onBetTimeout(betting)), betTimeoutMillis) : null;
         }
-        calculateResults();
-    }
-
-    private void calculateResults() {
-        broadcast("--- [Final Results] ---");
-        int dealerFinalScore = BlackjackScoreCalculator.calculateScore(dealerCards);
-        broadcast("Dealer Final Score: " + dealerFinalScore);
-
-        for (ClientHandlerB p : players) {
-            String resultMsg;
-            int pScore = p.getScore();
-            int bet = p.getCurrentBet();
-            String status = ""; // 승패 상태 (WIN, LOSE, TIE)
-
-            if (p.isSurrender()) {
-                int returnMoney = bet / 2;
-                p.increaseBalance(returnMoney);
-                resultMsg = "Surrender (Given up: " + returnMoney + " returned)";
-                status = "LOSE";
-            } else if (p.isBust()) {
-                resultMsg = "Lose (Bust)";
-                status = "LOSE";
-            } else if (dealerFinalScore > 21) {
-                int prize = bet * 2;
-                p.increaseBalance(prize);
-                resultMsg = "Win! (Dealer Bust) - Prize: " + prize;
-                status = "WIN";
-            } else if (p.isBlackjack() && dealerFinalScore != 21) {
-                // 블랙잭 승리 (보통 2.5배 지급, 여기서는 2배로)
-                int prize = (int)(bet * 2.5);
-                p.increaseBalance(prize);
-                resultMsg = "Blackjack Win! (" + pScore + " vs " + dealerFinalScore + ") - Prize: " + prize;
-                status = "WIN";
-            } else if (pScore > dealerFinalScore) {
-                int prize = bet * 2;
-                p.increaseBalance(prize);
-                resultMsg = "Win! (" + pScore + " vs " + dealerFinalScore + ") - Prize: " + prize;
-                status = "WIN";
-            } else if (pScore == dealerFinalScore) {
-                p.increaseBalance(bet);
-                resultMsg = "Tie (Push)";
-                status = "TIE";
-            } else {
-                resultMsg = "Lose (" + pScore + " vs " + dealerFinalScore + ") - Bet lost.";
-                status = "LOSE";
+    }
+
+    private static TimerWheel.Timeout cancel(TimerWheel.Timeout t) {
+        if (t != null) t.cancel();
+        return null;
+    }
+
+    private void onTurnTimeout(long decision) {
+        if (engine.turnTimedOut(decision)) runDealerIfDue();
+    }
+
+    private void onBetTimeout(long betting) {
+        if (engine.bettingTimedOut(betting)) runDealerIfDue();
+    }
+
+    private void publish(RoundEvent e, TablePlayer[] seated) {
+        switch (e.type) {
+            case RoundEvent.JOINED:
+                broadcast(seated, ServerMessage.log("SERVER_MSG: Player [" + e.id + "] joined table #" + tableId + ". (Total: " + e.a + ")"));
+                break;
+            case RoundEvent.LEFT:
+                broadcast(seated, ServerMessage.log("SERVER_MSG: Player [" + e.id + "] left."));
+                break;
+            case RoundEvent.SECTION:
+                broadcast(seated, ServerMessage.SEPARATOR);
+                break;
+            case RoundEvent.BETTING_OPEN:
+                broadcast(seated, ServerMessage.GAME_PHASE);
+                break;
+            case RoundEvent.BET_PROMPT:
+                e.player.send(ServerMessage.balance(WireProtocol.BALANCE_AT_BETTING, e.a));
+                e.player.send(BET_PROMPT);
+                break;
+            case RoundEvent.BET_PLACED:
+                ServerMetrics.wagered(e.a);
+                broadcast(seated, ServerMessage.betPlaced(e.id, e.a));
+                break;
+            case RoundEvent.ROUND_START:
+                roundStartedAt = System.nanoTime();
+                broadcast(seated, ServerMessage.ROUND_START);
+                break;
+            case RoundEvent.SHUFFLED:
+                broadcast(seated, SHUFFLE_INFO);
+                break;
+            case RoundEvent.DEALER_OPEN:
+                broadcast(seated, ServerMessage.dealerOpen(Card.of(e.a), e.b));
+                break;
+            case RoundEvent.INITIAL_DEAL:
+                // 카드 정보 전송 (A, J, Q, K 표시 포함)
+                e.player.send(ServerMessage.initialDeal(Card.of(e.a), Card.of(e.b), Card.of(e.c), e.d));
+                break;
+            case RoundEvent.HINT:
+                e.player.send(e.a == RoundEvent.HINT_BLACKJACK ? BLACKJACK_INFO
+                        : e.a == RoundEvent.HINT_SOFT_HAND ? SOFT_HAND_INFO : SOFT_HIT_INFO);
+                break;
+            case RoundEvent.TURN:
+                broadcast(seated, ServerMessage.turn(e.id));
+                e.player.send(ServerMessage.YOUR_TURN);
+                break;
+            case RoundEvent.YOUR_TURN:
+                e.player.send(ServerMessage.YOUR_TURN);
+                break;
+            case RoundEvent.HIT:
+                broadcast(seated, ServerMessage.hit(e.id, Card.of(e.a), e.b));
+                break;
+            case RoundEvent.STAND:
+                broadcast(seated, ServerMessage.stand(e.id, e.b));
+                break;
+            case RoundEvent.DOUBLE_DOWN:
+                ServerMetrics.wagered(e.c);
+                broadcast(seated, ServerMessage.doubleDown(e.id, Card.of(e.a), e.b));
+                break;
+            case RoundEvent.SURRENDER:
+                broadcast(seated, ServerMessage.surrender(e.id));
+                break;
+            case RoundEvent.BUST:
+                broadcast(seated, ServerMessage.bust(e.id, e.a == 1));
+                break;
+            case RoundEvent.DEALER_TURN:
+                broadcast(seated, ServerMessage.dealerTurn(e.b));
+                break;
+            case RoundEvent.DEALER_DRAW:
+                broadcast(seated, ServerMessage.dealerDraw(Card.of(e.a), e.b));
+                break;
+            case RoundEvent.DEALER_FINAL:
+                broadcast(seated, RESULTS_HEADER);
+                broadcast(seated, ServerMessage.dealerFinal(e.b));
+                break;
+            case RoundEvent.SETTLED: {
+                byte outcome = (byte) e.a;
+                ServerMetrics.paidOut(e.b);
+                broadcast(seated, ServerMessage.settlement(e.id, outcome, e.b, e.c, e.d));
+                e.player.send(ServerMessage.balance(WireProtocol.BALANCE_AFTER_SETTLEMENT, e.e));
+                e.player.send(ServerMessage.gameResult(PayoutRules.status(outcome)));
+                break;
             }
-            
-            broadcast(p.getPlayerId() + ": " + resultMsg);
-            p.sendMessage("INFO: Balance after settlement: [" + p.getBalance() + "]");
-            p.sendMessage("GAME_RESULT:" + status);
+            case RoundEvent.ROUND_END:
+                ServerMetrics.roundDuration(System.nanoTime() - roundStartedAt);
+                handEnded();
+                broadcast(seated, ServerMessage.GAME_END);
+                break;
+            case RoundEvent.TURN_TIMEOUT:
+                ServerMetrics.turnTimeout();
+                broadcast(seated, ServerMessage.log("INFO: Player [" + e.id + "] ran out of time and stands."));
+                break;
+            case RoundEvent.BETTING_CLOSED:
+                ServerMetrics.bettingTimeout();
+                broadcast(seated, e.b == 1 ? NO_BETS_INFO
+                        : ServerMessage.log("INFO: Betting time is over. Sitting out this round: " + e.a));
+                break;
+            case RoundEvent.SAT_OUT:
+                ServerMetrics.satOut();
+                e.player.send(SAT_OUT_INFO);
+                break;
+            case RoundEvent.ERROR:
+                e.player.send(e.a == RoundEvent.ERROR_NOT_YOUR_TURN
+                        ? ServerMessage.log("ERROR: It is not your turn. (Current turn: " + e.id + ")")
+                        : ERRORS[e.a]);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void handEnded() {
+        long now = System.currentTimeMillis();
+        if (lastHandAt > 0) {
+            long interval = Math.max(1, now - lastHandAt);
+            handIntervalMillis = handIntervalMillis == 0 ? interval : (handIntervalMillis * 7 + interval) / 8;
+        }
+        lastHandAt = now;
+    }
+
+    private void broadcast(TablePlayer[] seated, ServerMessage msg) {
+        long t0 = System.nanoTime();
+        for (TablePlayer p : seated) {
+            p.send(msg);
         }
-        
-        isGameStarted = false;
-        isBettingPhase = false;
-        broadcast("GAME_END: Round ended. Type START to play again.");
+        if (stream.hasSubscribers()) stream.append(msg); // spectators: one slot, however many
+        ServerMetrics.broadcast(System.nanoTime() - t0);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+import java.util.Arrays;
+
+/**
+ * One blackjack hand (a player's or the dealer's), reused across rounds.
+ * Cards are kept as rank codes in a small byte[] next to the running hard total and ace count,
+ * so adding a card and scoring the hand allocate nothing. add() updates the score and the
+ * soft/bust/blackjack flags in constant time; every query is a field read.
+ */
+public final class Hand {
+    private byte[] codes = new byte[12]; // grows only for very long multi-deck hands
+    private int count = 0;
+    private int hardTotal = 0;           // every ace counted as 1
+    private int aceCount = 0;
+    private int score = 0;
+    private boolean soft = false;
+    private boolean bust = false;
+    private boolean blackjack = false;
+
+    public void add(Card card) {
+        if (count == codes.length) {
+            codes = Arrays.copyOf(codes, count * 2);
+        }
+        codes[count++] = card.getCode();
+        hardTotal += card.getValue();
+        if (card.isAce()) aceCount++;
+
+        if (hardTotal > BlackjackScoreCalculator.MAX_HARD) { // only if cards keep coming after a bust
+            score = hardTotal;
+            soft = false;
+            bust = true;
+            blackjack = false;
+            return;
+        }
+        // One table lookup instead of re-deriving soft/bust/blackjack (see BlackjackScoreCalculator)
+        int index = BlackjackScoreCalculator.handIndex(hardTotal, aceCount > 0, count);
+        score = BlackjackScoreCalculator.tableScore(index);
+        soft = BlackjackScoreCalculator.tableSoft(index);
+        bust = BlackjackScoreCalculator.tableBust(index);
+        blackjack = BlackjackScoreCalculator.tableBlackjack(index);
+    }
+
+    public void clear() {
+        count = 0;
+        hardTotal = 0;
+        aceCount = 0;
+        score = 0;
+        soft = false;
+        bust = false;
+        blackjack = false;
+    }
+
+    public int size() { return count; }
+    public Card get(int i) { return Card.of(codes[i]); }
+    public int getHardTotal() { return hardTotal; }
+    public int getAceCount() { return aceCount; }
+
+    public int getScore() { return score; }
+    public boolean isSoft() { return soft; }
+    public boolean isBust() { return bust; }
+    public boolean isBlackjack() { return blackjack; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(get(i).getDisplayName());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,429 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary hand history: one record per round with everything needed to play it again (HandReplay).
+ *
+ * A record holds the shoe state when betting opened (seed, position and cut card; see Shoe), the
+ * seats in order with their balances, and every engine command of the round in the order the
+ * table ran it, with its time offset. It ends with how many events the round produced and a
+ * 64-bit digest of them, so a replay that comes out differently is caught.
+ *
+ * File: 8-byte MAGIC, then records of u32 length, body, u32 CRC32C of the body. In the body
+ * numbers are zigzag varints, except start time, seed and digest (8 bytes each):
+ *   table, round, start millis, seed, position, decks, cut card,
+ *   seat count, seats (id, balance, away), op count, ops (delta millis, op, seat, args),
+ *   status, event count, digest
+ * Strings are a u8 length and UTF-8. Records are appended to a buffered stream (a memory copy on
+ * the table's worker) and a background thread flushes it every FLUSH_MILLIS, so a crash loses at
+ * most that window. A torn record at the end is cut off when the file is opened again.
+ */
+public final class HandHistory {
+    // Ops: one per engine command, with its arguments
+    public static final byte OP_BET = 1;          // amount
+    public static final byte OP_ACTION = 2;       // WireProtocol.ACTION_*
+    public static final byte OP_DEALER_STEP = 3;
+    public static final byte OP_TURN_TIMEOUT = 4;
+    public static final byte OP_BET_TIMEOUT = 5;
+    public static final byte OP_JOIN = 6;         // id, balance; takes the next seat number
+    public static final byte OP_LEAVE = 7;
+    public static final byte OP_AWAY = 8;         // connection dropped, seat held
+    public static final byte OP_BACK = 9;         // seat resumed by a new connection
+    public static final byte OP_ACCOUNT = 10;     // id, balance (logged in mid-round)
+    private static final String[] OP_NAMES = {"?", "BET", "ACTION", "DEALER_STEP", "TURN_TIMEOUT",
+            "BET_TIMEOUT", "JOIN", "LEAVE", "AWAY", "BACK", "ACCOUNT"};
+
+    // How a round ended
+    public static final byte COMPLETE = 0;
+    public static final byte NO_BETS = 1;         // betting deadline passed and nobody bet
+    public static final byte ABANDONED = 2;       // everyone left before the dealer's turn
+
+    public static final long DIGEST_SEED = 0xCBF29CE484222325L;
+    private static final long MAGIC = 0x424A_4849_5354_0001L; // "BJHIST" v1
+    private static final int MAX_RECORD = 1 << 20;
+    private static final long FLUSH_MILLIS = 200;
+
+    private final DataOutputStream out; // guarded by this
+    private final LongAdder rounds = new LongAdder();
+
+    private HandHistory(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /** Opens (or creates) a history file for appending and starts the flush thread. */
+    public static HandHistory open(Path file) throws IOException {
+        if (Files.exists(file) && Files.size(file) > 0) {
+            long valid = read(file, round -> {});
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                if (valid < ch.size()) {
+                    System.out.println("Hand history " + file + ": cutting a torn record at byte " + valid);
+                    ch.truncate(valid);
+                }
+            }
+        } else {
+            try (DataOutputStream header = new DataOutputStream(Files.newOutputStream(file))) {
+                header.writeLong(MAGIC);
+            }
+        }
+        HandHistory history = new HandHistory(new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.APPEND), 64 * 1024)));
+        Thread.ofPlatform().daemon().name("history-flush").start(history::flushLoop);
+        Runtime.getRuntime().addShutdownHook(new Thread(history::flush));
+        return history;
+    }
+
+    /** A recorder for one table; used only on that table's worker. */
+    public Recorder recorder(int tableId) {
+        return new Recorder(tableId);
+    }
+
+    private synchronized void append(byte[] body, int length, int crc) {
+        try {
+            out.writeInt(length);
+            out.write(body, 0, length);
+            out.writeInt(crc);
+            rounds.increment();
+        } catch (IOException e) {
+            System.out.println("Hand history write failed: " + e.getMessage());
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                Thread.sleep(FLUSH_MILLIS);
+                flush();
+            }
+        } catch (InterruptedException e) {
+            // stopping
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Hand history flush failed: " + e.getMessage());
+        }
+    }
+
+    public long getRoundCount() { return rounds.sum(); }
+
+    /** Folds one event into a round digest; `seat` is the player's seat number, -1 for table events. */
+    public static long digest(long h, RoundEvent e, int seat) {
+        h = mix(h, e.type);
+        h = mix(h, seat);
+        h = mix(h, e.a);
+        h = mix(h, e.b);
+        h = mix(h, e.c);
+        h = mix(h, e.d);
+        return mix(h, e.e);
+    }
+
+    private static long mix(long h, int v) {
+        return (h ^ v) * 0x100000001B3L;
+    }
+
+    public static String opName(byte op) {
+        return op > 0 && op < OP_NAMES.length ? OP_NAMES[op] : "?";
+    }
+
+    /**
+     * Collects one table's current round. RoundEngine calls begin() when betting opens, op() before
+     * every command, event() for every event and end() when the round is over; nothing is
+     * recorded between rounds.
+     */
+    public final class Recorder {
+        private final int tableId;
+        private final CRC32C crc = new CRC32C();
+        private final Bytes head = new Bytes(256);
+        private final Bytes ops = new Bytes(512);
+        private final List<TablePlayer> seats = new ArrayList<>();
+        private long round;
+        private boolean open;
+        private long startMillis;
+        private int opCount;
+        private int eventCount;
+        private long digest;
+
+        private Recorder(int tableId) {
+            this.tableId = tableId;
+        }
+
+        public boolean isOpen() { return open; }
+
+        public void begin(List<TablePlayer> players, Shoe shoe) {
+            open = true;
+            round++;
+            startMillis = System.currentTimeMillis();
+            head.clear();
+            ops.clear();
+            seats.clear();
+            opCount = 0;
+            eventCount = 0;
+            digest = DIGEST_SEED;
+            head.varint(tableId);
+            head.varint(round);
+            head.putLong(startMillis);
+            head.putLong(shoe.getSeed());
+            head.varint(shoe.getPosition());
+            head.varint(shoe.getDecks());
+            head.varint(shoe.getCutCard());
+            head.varint(players.size());
+            for (TablePlayer p : players) {
+                seats.add(p);
+                head.string(p.getPlayerId());
+                head.varint(p.getBalance());
+                head.put(p.isAway() ? 1 : 0);
+            }
+        }
+
+        public void op(byte op, TablePlayer player, int arg) {
+            if (!open) return;
+            opHeader(op, seatOf(player));
+            if (op == OP_BET || op == OP_ACTION) ops.varint(arg);
+        }
+
+        /** JOIN (a new seat) or ACCOUNT (the seat's ID and balance changed). */
+        public void account(byte op, TablePlayer player) {
+            if (!open) return;
+            if (op == OP_JOIN) seats.add(player);
+            opHeader(op, seatOf(player));
+            ops.string(player.getPlayerId());
+            ops.varint(player.getBalance());
+        }
+
+        /** A new connection took `previous`'s seat. */
+        public void replaced(TablePlayer previous, TablePlayer next) {
+            if (!open) return;
+            int seat = seatOf(previous);
+            opHeader(OP_BACK, seat);
+            if (seat >= 0) seats.set(seat, next);
+        }
+
+        private void opHeader(byte op, int seat) {
+            ops.varint(System.currentTimeMillis() - startMillis);
+            ops.put(op);
+            ops.varint(seat);
+            opCount++;
+        }
+
+        public void event(RoundEvent e) {
+            if (!open) return;
+            eventCount++;
+            digest = digest(digest, e, seatOf(e.player));
+        }
+
+        public void end(byte status) {
+            if (!open) return;
+            open = false;
+            head.varint(opCount);
+            head.put(ops);
+            head.put(status);
+            head.varint(eventCount);
+            head.putLong(digest);
+            crc.reset();
+            crc.update(head.array, 0, head.length);
+            append(head.array, head.length, (int) crc.getValue());
+            seats.clear();
+        }
+
+        private int seatOf(TablePlayer player) {
+            if (player == null) return -1;
+            for (int i = 0; i < seats.size(); i++) {
+                if (seats.get(i) == player) return i;
+            }
+            return -1;
+        }
+    }
+
+    /** One round as read back from the file. Ops are kept as parallel arrays. */
+    public static final class Round {
+        public int table;
+        public long round;
+        public long startMillis;
+        public long seed;
+        public int position;
+        public int decks;
+        public int cutCard;
+        public String[] seatIds;
+        public int[] seatBalances;
+        public boolean[] seatAway;
+        public int opCount;
+        public int[] opMillis;
+        public byte[] opCodes;
+        public int[] opSeats;
+        public int[] opArgs;        // BET/ACTION argument, JOIN/ACCOUNT balance
+        public String[] opIds;      // JOIN/ACCOUNT only
+        public byte status;
+        public int eventCount;
+        public long digest;
+    }
+
+    public interface RoundConsumer {
+        void accept(Round round) throws IOException;
+    }
+
+    /**
+     * Reads every intact record in order. Returns the length of the valid prefix of the file; a
+     * record with a bad length or checksum (a torn write) ends the read.
+     */
+    public static long read(Path file, RoundConsumer each) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 20))) {
+            if (in.readLong() != MAGIC) throw new IOException(file + " is not a hand history file");
+            long valid = 8;
+            byte[] body = new byte[4096];
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return valid;
+                }
+                if (length <= 0 || length > MAX_RECORD) return valid;
+                if (body.length < length) body = new byte[Math.max(length, body.length * 2)];
+                int stored;
+                try {
+                    in.readFully(body, 0, length);
+                    stored = in.readInt();
+                } catch (EOFException e) {
+                    return valid;
+                }
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != stored) return valid;
+                each.accept(parse(ByteBuffer.wrap(body, 0, length)));
+                valid += 8 + length;
+            }
+        }
+    }
+
+    private static Round parse(ByteBuffer b) {
+        Round r = new Round();
+        r.table = (int) varint(b);
+        r.round = varint(b);
+        r.startMillis = b.getLong();
+        r.seed = b.getLong();
+        r.position = (int) varint(b);
+        r.decks = (int) varint(b);
+        r.cutCard = (int) varint(b);
+        int seats = (int) varint(b);
+        r.seatIds = new String[seats];
+        r.seatBalances = new int[seats];
+        r.seatAway = new boolean[seats];
+        for (int i = 0; i < seats; i++) {
+            r.seatIds[i] = string(b);
+            r.seatBalances[i] = (int) varint(b);
+            r.seatAway[i] = b.get() != 0;
+        }
+        int n = (int) varint(b);
+        r.opCount = n;
+        r.opMillis = new int[n];
+        r.opCodes = new byte[n];
+        r.opSeats = new int[n];
+        r.opArgs = new int[n];
+        r.opIds = new String[n];
+        for (int i = 0; i < n; i++) {
+            r.opMillis[i] = (int) varint(b);
+            byte op = b.get();
+            r.opCodes[i] = op;
+            r.opSeats[i] = (int) varint(b);
+            if (op == OP_BET || op == OP_ACTION) {
+                r.opArgs[i] = (int) varint(b);
+            } else if (op == OP_JOIN || op == OP_ACCOUNT) {
+                r.opIds[i] = string(b);
+                r.opArgs[i] = (int) varint(b);
+            }
+        }
+        r.status = b.get();
+        r.eventCount = (int) varint(b);
+        r.digest = b.getLong();
+        return r;
+    }
+
+    private static long varint(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << shift;
+            if (x >= 0) break;
+        }
+        return (v >>> 1) ^ -(v & 1); // zigzag
+    }
+
+    private static String string(ByteBuffer b) {
+        int n = b.get() & 0xFF;
+        String s = new String(b.array(), b.arrayOffset() + b.position(), n, StandardCharsets.UTF_8);
+        b.position(b.position() + n);
+        return s;
+    }
+
+    // Growable byte array for building a record; reused round after round
+    private static final class Bytes {
+        byte[] array;
+        int length;
+
+        Bytes(int capacity) {
+            array = new byte[capacity];
+        }
+
+        void clear() { length = 0; }
+
+        private void ensure(int extra) {
+            if (length + extra > array.length) array = Arrays.copyOf(array, Math.max(length + extra, array.length * 2));
+        }
+
+        void put(int v) {
+            ensure(1);
+            array[length++] = (byte) v;
+        }
+
+        void put(Bytes other) {
+            ensure(other.length);
+            System.arraycopy(other.array, 0, array, length, other.length);
+            length += other.length;
+        }
+
+        void putLong(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) array[length++] = (byte) (v >>> shift);
+        }
+
+        void varint(long v) {
+            long z = (v << 1) ^ (v >> 63); // zigzag
+            ensure(10);
+            while ((z & ~0x7FL) != 0) {
+                array[length++] = (byte) ((z & 0x7F) | 0x80);
+                z >>>= 7;
+            }
+            array[length++] = (byte) z;
+        }
+
+        void string(String s) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            int n = Math.min(utf8.length, 255);
+            put(n);
+            ensure(n);
+            System.arraycopy(utf8, 0, array, length, n);
+            length += n;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays HandHistory rounds again through RoundEngine and checks they come out the same.
+ *
+ * Each round restores its shoe and seats from the record and runs the recorded commands back to
+ * back: no sockets, no dealer pacing, no timers (a timeout is replayed as the engine's current
+ * deadline firing). The events are digested exactly as the live recorder did; a different
+ * status, event count or digest is a divergence. Rounds don't depend on each other, so they are
+ * replayed in parallel.
+ *
+ * Usage: java HandReplay FILE... [--table=N] [--round=N] [--verbose] [--threads=N]
+ *
+ * --verbose prints every command and event of the selected rounds (pick one with --table and
+ * --round). Exits with status 1 if any round diverged.
+ */
+public class HandReplay {
+    private static final int BATCH = 512; // rounds per task
+
+    // A seat with no connection; the engine updates its game state and send() goes nowhere
+    private static final class ReplayPlayer implements TablePlayer {
+        private String id;
+        private int balance;
+        private int currentBet;
+        private boolean betPlaced;
+        private boolean surrender;
+        private boolean away;
+        private final Hand hand = new Hand();
+
+        ReplayPlayer(String id, int balance) {
+            this.id = id;
+            this.balance = balance;
+        }
+
+        public String getPlayerId() { return id; }
+        public int getBalance() { return balance; }
+        public void decreaseBalance(int amount) { balance -= amount; }
+        public void increaseBalance(int amount) { balance += amount; }
+        public int getCurrentBet() { return currentBet; }
+        public void setCurrentBet(int amount) { currentBet = amount; }
+        public boolean isBetPlaced() { return betPlaced; }
+        public void setBetPlaced(boolean placed) { betPlaced = placed; }
+        public boolean isSurrender() { return surrender; }
+        public void setSurrender(boolean surrender) { this.surrender = surrender; }
+        public Hand getHand() { return hand; }
+        public boolean isAway() { return away; }
+        public void setAway(boolean away) { this.away = away; }
+        public void send(ServerMessage msg) {}
+
+        public void resetRound() {
+            hand.clear();
+            currentBet = 0;
+            betPlaced = false;
+            surrender = false;
+        }
+    }
+
+    private final boolean verbose;
+    private final ExecutorService pool;
+    private final Semaphore inFlight; // bounds the rounds held in memory
+    private List<HandHistory.Round> batch = new ArrayList<>(BATCH);
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder divergences = new LongAdder();
+
+    public HandReplay(boolean verbose, int threads) {
+        this.verbose = verbose;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.inFlight = new Semaphore(threads * 4);
+    }
+
+    /** Replays one round; returns null if it matched, else what differed. */
+    public String replay(HandHistory.Round r) {
+        StringBuilder trace = verbose ? new StringBuilder() : null;
+        RoundEngine engine = new RoundEngine(Shoe.restore(r.decks, r.cutCard, r.seed, r.position));
+        List<ReplayPlayer> seats = new ArrayList<>();
+        for (int i = 0; i < r.seatIds.length; i++) {
+            ReplayPlayer p = new ReplayPlayer(r.seatIds[i], r.seatBalances[i]);
+            p.away = r.seatAway[i];
+            seats.add(p);
+            engine.join(p);
+        }
+        engine.drainEvents(); // the joins happened before the round
+
+        long digest = HandHistory.DIGEST_SEED;
+        int events = 0;
+        byte status = HandHistory.ABANDONED; // unless the engine says otherwise
+        engine.start();
+        for (int i = -1; i < r.opCount; i++) {
+            if (i >= 0) {
+                ReplayPlayer p = r.opSeats[i] >= 0 && r.opSeats[i] < seats.size() ? seats.get(r.opSeats[i]) : null;
+                byte op = r.opCodes[i];
+                if (trace != null) {
+                    trace.append(String.format("  +%5dms %-12s seat %d%s%n", r.opMillis[i], HandHistory.opName(op), r.opSeats[i],
+                            op == HandHistory.OP_BET || op == HandHistory.OP_ACTION ? " " + r.opArgs[i]
+                                    : r.opIds[i] != null ? " " + r.opIds[i] + " " + r.opArgs[i] : ""));
+                }
+                if (!apply(engine, seats, p, r, i)) {
+                    return "op " + i + " (" + HandHistory.opName(op) + ") names seat " + r.opSeats[i] + " of " + seats.size();
+                }
+            }
+            for (RoundEvent e : engine.drainEvents()) {
+                int seat = e.player != null ? seats.indexOf((ReplayPlayer) e.player) : -1;
+                digest = HandHistory.digest(digest, e, seat);
+                events++;
+                if (e.type == RoundEvent.ROUND_END) status = HandHistory.COMPLETE;
+                else if (e.type == RoundEvent.BETTING_CLOSED && e.b == 1) status = HandHistory.NO_BETS;
+                if (trace != null) {
+                    trace.append(String.format("      event %2d seat %d  %d %d %d %d %d%n", e.type, seat, e.a, e.b, e.c, e.d, e.e));
+                }
+            }
+        }
+        commands.add(r.opCount);
+        if (trace != null) {
+            System.out.print("table " + r.table + " round " + r.round + " (seed " + Long.toHexString(r.seed)
+                    + " @" + r.position + ")\n" + trace);
+        }
+        if (status != r.status) return "status " + status + ", recorded " + r.status;
+        if (events != r.eventCount) return events + " events, recorded " + r.eventCount;
+        if (digest != r.digest) return "event digest differs";
+        return null;
+    }
+
+    // Runs one recorded command; false if it names a seat that doesn't exist
+    private static boolean apply(RoundEngine engine, List<ReplayPlayer> seats, ReplayPlayer p, HandHistory.Round r, int i) {
+        switch (r.opCodes[i]) {
+            case HandHistory.OP_JOIN: {
+                ReplayPlayer joined = new ReplayPlayer(r.opIds[i], r.opArgs[i]);
+                seats.add(joined);
+                engine.join(joined);
+                return true;
+            }
+            case HandHistory.OP_DEALER_STEP:
+                engine.dealerStep();
+                return true;
+            case HandHistory.OP_BET_TIMEOUT:
+                engine.bettingTimedOut(engine.getBettingSeq());
+                return true;
+            default:
+                break;
+        }
+        if (p == null) return false;
+        switch (r.opCodes[i]) {
+            case HandHistory.OP_BET:
+                engine.placeBet(p, r.opArgs[i]);
+                break;
+            case HandHistory.OP_ACTION:
+                engine.action(p, (byte) r.opArgs[i]);
+                break;
+            case HandHistory.OP_TURN_TIMEOUT:
+                engine.turnTimedOut(engine.getDecisionSeq());
+                break;
+            case HandHistory.OP_LEAVE:
+                engine.leave(p);
+                break;
+            case HandHistory.OP_AWAY:
+                engine.playerAway(p);
+                break;
+            case HandHistory.OP_BACK:
+                engine.replace(p, p); // same state, new connection
+                p.away = false;
+                break;
+            case HandHistory.OP_ACCOUNT:
+                p.id = r.opIds[i];
+                p.balance = r.opArgs[i];
+                engine.accountChanged(p);
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    private void check(HandHistory.Round r) {
+        String divergence = replay(r);
+        rounds.increment();
+        if (divergence != null) {
+            divergences.increment();
+            System.out.println("DIVERGED table " + r.table + " round " + r.round + ": " + divergence);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> files = new ArrayList<>();
+        int table = -1;
+        long round = -1;
+        boolean verbose = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (arg.startsWith("--table=")) {
+                table = Integer.parseInt(arg.substring("--table=".length()));
+            } else if (arg.startsWith("--round=")) {
+                round = Long.parseLong(arg.substring("--round=".length()));
+            } else if (arg.equals("--verbose")) {
+                verbose = true;
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--")) {
+                System.out.println("Unknown option: " + arg);
+            } else {
+                files.add(Path.of(arg));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: java HandReplay FILE... [--table=N] [--round=N] [--verbose] [--threads=N]");
+            System.exit(2);
+        }
+        if (verbose) threads = 1; // keep the trace in file order
+
+        HandReplay replay = new HandReplay(verbose, threads);
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (Path file : files) {
+            int tableFilter = table;
+            long roundFilter = round;
+            HandHistory.read(file, r -> {
+                if ((tableFilter < 0 || r.table == tableFilter) && (roundFilter < 0 || r.round == roundFilter)) replay.add(r);
+            });
+            bytes += Files.size(file);
+        }
+        replay.finish();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long n = replay.rounds.sum();
+        System.out.printf("replayed %d rounds (%d commands, %.1f MB) in %.2fs: %.0f rounds/s, %d threads%n",
+                n, replay.commands.sum(), bytes / 1e6, seconds, n / seconds, threads);
+        System.out.println("divergences: " + replay.divergences.sum());
+        System.exit(replay.divergences.sum() == 0 ? 0 : 1);
+    }
+
+    // Rounds go to the pool BATCH at a time; only the reading thread calls add() and finish()
+    private void add(HandHistory.Round r) {
+        batch.add(r);
+        if (batch.size() == BATCH) flush();
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) return;
+        List<HandHistory.Round> rounds = batch;
+        batch = new ArrayList<>(BATCH);
+        inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                for (HandHistory.Round r : rounds) check(r);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void finish() throws InterruptedException {
+        flush();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Player wallets backed by an append-only, memory-mapped log (write-ahead: every balance change
+ * is appended before the player is told about it).
+ *
+ * Appending is a copy into the mapped file under a short lock; a background thread forces the
+ * mapped pages to disk every syncMillis, so one fsync covers every record written in that window
+ * (group commit) and the round path never waits on the disk. A crash loses at most that window.
+ * When a chunk fills up, the writer only maps the next one; the full chunk's last unsynced bytes
+ * are forced by the same background thread.
+ *
+ * File layout: an 8-byte header, then records in fixed-size chunks (a record never crosses a chunk):
+ *   u8 type, u8 idLength, id (UTF-8), i32 amount, i32 balance after, i32 CRC32C of the preceding bytes
+ * A PAD byte ends a chunk early and a zero byte ends the log. Each record carries the resulting
+ * balance, so replay only keeps the last record per account; it stops at the first record whose
+ * checksum fails (a torn write) and appends continue from there. A bet that was never settled
+ * (the server stopped mid-round) is voided on replay with a REFUND record.
+ */
+public final class Ledger {
+    public static final byte OPEN = 1;    // amount = starting balance
+    public static final byte BET = 2;
+    public static final byte DOUBLE = 3;  // additional bet on double down
+    public static final byte REFUND = 4;  // half the bet on surrender, or an unsettled bet voided on replay
+    public static final byte PAYOUT = 5;  // settlement credit (stake + winnings, or push refund)
+    private static final byte PAD = 0x7F;
+
+    private static final long MAGIC = 0x424A_4C45_4447_0001L; // "BJLEDG" v1
+    private static final int HEADER = 8;
+    private static final int CHUNK = 16 * 1024 * 1024;
+    private static final int MAX_ID = 64;
+    private static final int MAX_RECORD = 2 + MAX_ID + 12;
+
+    private final Map<String, Integer> balances = new HashMap<>(); // guarded by this
+    private final Set<String> online = new HashSet<>();             // guarded by this
+
+    // File state, all guarded by this; channel == null for an in-memory ledger
+    private final FileChannel channel;
+    private MappedByteBuffer chunk;
+    private long chunkBase;   // file offset of `chunk`
+    private int position;     // next write offset inside `chunk`
+    private int syncedUpTo;   // offset inside `chunk` already forced
+    private List<Unsynced> retired = new ArrayList<>(); // full chunks the sync thread hasn't forced yet
+    private final byte[] scratch = new byte[MAX_RECORD];
+    private final CRC32C crc = new CRC32C();
+    private Thread syncer;
+
+    private Map<String, Integer> openStakes = new HashMap<>(); // replay only: bets not yet settled
+    private final LongAdder records = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    // The tail of a full chunk, from the first byte not yet forced
+    private record Unsynced(MappedByteBuffer chunk, int from) {}
+
+    private Ledger(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /** Balances kept in memory only (no file): accounts live until the server stops. */
+    public static Ledger inMemory() {
+        return new Ledger(null);
+    }
+
+    /** Opens (or creates) the ledger file, replays it and starts the group-commit thread. */
+    public static Ledger open(Path file, long syncMillis) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Ledger ledger = new Ledger(ch);
+        long t0 = System.nanoTime();
+        ledger.replay(Files.size(file));
+        int voided = ledger.voidOpenBets();
+        System.out.printf("Ledger %s: %d records, %d accounts replayed in %.0f ms (%d unsettled bets refunded)%n",
+                file, ledger.records.sum(), ledger.balances.size(), (System.nanoTime() - t0) / 1e6, voided);
+        ledger.syncer = Thread.ofPlatform().daemon().name("ledger-sync").start(() -> ledger.syncLoop(syncMillis));
+        Runtime.getRuntime().addShutdownHook(new Thread(ledger::close));
+        return ledger;
+    }
+
+    private synchronized void replay(long fileSize) throws IOException {
+        if (fileSize == 0) {
+            mapChunk(0);
+            chunk.putLong(0, MAGIC);
+            position = HEADER;
+            return;
+        }
+        for (long base = 0; ; base += CHUNK) {
+            mapChunk(base);
+            int pos = base == 0 ? HEADER : 0;
+            if (base == 0 && chunk.getLong(0) != MAGIC) {
+                throw new IOException("not a ledger file");
+            }
+            while (true) {
+                int next = pos < CHUNK ? readRecord(pos) : -1;
+                if (next == -1) break;   // chunk full or padded: continue in the next chunk
+                if (next == 0) {         // end of log (or a torn record): appends resume here
+                    position = pos;
+                    syncedUpTo = pos;
+                    for (int i = pos; i < CHUNK; i++) chunk.put(i, (byte) 0);
+                    return;
+                }
+                pos = next;
+            }
+            if (base + CHUNK >= fileSize) {
+                mapChunk(base + CHUNK);
+                return;
+            }
+        }
+    }
+
+    // Applies the record at pos; returns the next offset, -1 for PAD (rest of chunk unused), 0 at the end
+    private int readRecord(int pos) {
+        byte type = chunk.get(pos);
+        if (type == PAD) return -1;
+        if (type < OPEN || type > PAYOUT || pos + 2 > CHUNK) return 0;
+        int idLength = chunk.get(pos + 1) & 0xFF;
+        int length = 2 + idLength + 12;
+        if (idLength == 0 || idLength > MAX_ID || pos + length > CHUNK) return 0;
+        chunk.get(pos, scratch, 0, length);
+        crc.reset();
+        crc.update(scratch, 0, length - 4);
+        if ((int) crc.getValue() != chunk.getInt(pos + length - 4)) return 0;
+        String id = new String(scratch, 2, idLength, StandardCharsets.UTF_8);
+        int amount = chunk.getInt(pos + 2 + idLength);
+        balances.put(id, chunk.getInt(pos + 2 + idLength + 4));
+        if (type == BET || type == DOUBLE) {
+            openStakes.merge(id, amount, Integer::sum);
+        } else {
+            openStakes.remove(id);
+        }
+        records.increment();
+        return pos + length;
+    }
+
+    private synchronized int voidOpenBets() {
+        int n = 0;
+        for (Map.Entry<String, Integer> e : openStakes.entrySet()) {
+            if (e.getValue() <= 0) continue;
+            String id = e.getKey();
+            record(REFUND, id, e.getValue(), balances.get(id) + e.getValue());
+            n++;
+        }
+        openStakes = null;
+        return n;
+    }
+
+    private void mapChunk(long base) throws IOException {
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, base, CHUNK);
+        chunkBase = base;
+        position = 0;
+        syncedUpTo = 0;
+    }
+
+    /**
+     * Claims an account for one connection. Returns its balance (new accounts start with
+     * initialBalance), or -1 if the account is already in use by another connection.
+     */
+    public synchronized int login(String id, int initialBalance) {
+        if (!online.add(id)) return -1;
+        Integer balance = balances.get(id);
+        if (balance != null) return balance;
+        record(OPEN, id, initialBalance, initialBalance);
+        return initialBalance;
+    }
+
+    public synchronized void logout(String id) {
+        online.remove(id);
+    }
+
+    /** Appends one balance change; memory copy only, the disk write happens in the next group commit. */
+    public synchronized void record(byte type, String id, int amount, int balanceAfter) {
+        balances.put(id, balanceAfter);
+        records.increment();
+        if (channel == null) return;
+
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int length = 2 + idBytes.length + 12;
+        if (position + length > CHUNK) {
+            if (position < CHUNK) chunk.put(position, PAD);
+            retired.add(new Unsynced(chunk, syncedUpTo)); // forced by the sync thread, not here
+            try {
+                mapChunk(chunkBase + CHUNK);
+            } catch (IOException e) {
+                throw new IllegalStateException("ledger file could not grow", e);
+            }
+        }
+        byte[] r = scratch;
+        r[0] = type;
+        r[1] = (byte) idBytes.length;
+        System.arraycopy(idBytes, 0, r, 2, idBytes.length);
+        putInt(r, 2 + idBytes.length, amount);
+        putInt(r, 6 + idBytes.length, balanceAfter);
+        crc.reset();
+        crc.update(r, 0, length - 4);
+        putInt(r, length - 4, (int) crc.getValue());
+        chunk.put(position, r, 0, length);
+        position += length;
+    }
+
+    private static void putInt(byte[] b, int i, int v) {
+        b[i] = (byte) (v >>> 24);
+        b[i + 1] = (byte) (v >>> 16);
+        b[i + 2] = (byte) (v >>> 8);
+        b[i + 3] = (byte) v;
+    }
+
+    private void syncLoop(long syncMillis) {
+        try {
+            while (true) {
+                Thread.sleep(syncMillis);
+                sync();
+            }
+        } catch (InterruptedException e) {
+            // closing
+        }
+    }
+
+    // Forces only the bytes written since the last sync; appends wait just for the range bookkeeping
+    private void sync() {
+        List<Unsynced> full;
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (this) {
+            if (position == syncedUpTo && retired.isEmpty()) return;
+            full = retired.isEmpty() ? List.of() : retired;
+            if (!full.isEmpty()) retired = new ArrayList<>();
+            target = chunk;
+            from = syncedUpTo;
+            to = position;
+            syncedUpTo = position;
+        }
+        for (Unsynced u : full) {
+            u.chunk().force(u.from(), CHUNK - u.from());
+        }
+        if (to > from) target.force(from, to - from);
+        syncs.increment();
+    }
+
+    public synchronized int getAccountCount() { return balances.size(); }
+    public long getRecordCount() { return records.sum(); }
+    public long getSyncCount() { return syncs.sum(); }
+
+    public void close() {
+        if (channel == null) return;
+        if (syncer != null) syncer.interrupt();
+        synchronized (this) {
+            for (Unsynced u : retired) {
+                u.chunk().force();
+            }
+            chunk.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Drives many bot players against a BlackjackServer over loopback and reports throughput and latency.
+ *
+ * Usage: java LoadGenerator [--bots=N] [--rounds=N] [--bet=N] [--strategy=basic|mimic-dealer|never-bust]
+ *                           [--mode=thread|virtual|nio] [--seats=N] [--port=N] [--host=H] [--batch=N]
+ *
+ * Without --port the server runs inside this process (no dealer delay) on a free port, so the
+ * tool needs nothing external and can run in CI. With --port it targets a running server.
+ *
+ * Every bot speaks the text protocol: START after each round, PLACE_BET when betting opens and
+ * PLAYER_ACTION from PlayerStrategy on YOUR_TURN, reading the server's EVT records through
+ * ClientEvents. All bots share one client selector thread, so N bots don't need N threads.
+ * Latency is from writing a command to reading the server's event for it (bet or action),
+ * measured on that thread. Exits with status 1 if the tables stall.
+ *
+ * With --batch=N each bot instead sends its strategy once as a DecisionTable chart in BOT_PLAY
+ * commands of N rounds, all written up front, and the server plays them at the bot's own bot
+ * table; the bot only reads the BOT_RESULT totals.
+ */
+public class LoadGenerator {
+    private static final byte[] START_CMD = "START\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] ACTION_CMDS = new byte[4][];
+    static {
+        for (byte a = 0; a < ACTION_CMDS.length; a++) {
+            ACTION_CMDS[a] = ("PLAYER_ACTION:" + WireProtocol.actionName(a) + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+    private static final long STALL_MILLIS = 10_000;
+
+    private final PlayerStrategy strategy;
+    private final int roundsPerBot;
+    private final int betAmount;
+    private final int batchRounds; // 0 = play every round over the wire
+    private final byte[][] batchCmds; // the BOT_PLAY commands a bot sends in batch mode
+    private final LatencyHistogram actionLatency = new LatencyHistogram();
+    private final LatencyHistogram betLatency = new LatencyHistogram();
+    private long commands;
+    private long rounds;
+    private long batchResults;
+    private int welcomed;
+    private int finished;
+    private IOException writeFailure; // set by a listener callback, checked by pump()
+
+    private LoadGenerator(PlayerStrategy strategy, int roundsPerBot, int betAmount, int batchRounds) {
+        this.strategy = strategy;
+        this.roundsPerBot = roundsPerBot;
+        this.betAmount = betAmount;
+        this.batchRounds = batchRounds;
+        List<byte[]> cmds = new ArrayList<>();
+        String chart = DecisionTable.chartOf(strategy);
+        for (int left = roundsPerBot; batchRounds > 0 && left > 0; left -= batchRounds) {
+            int n = Math.min(left, batchRounds);
+            cmds.add(("BOT_PLAY:" + n + ":" + betAmount + ":" + chart + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        this.batchCmds = cmds.toArray(new byte[0][]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int bots = 100;
+        int roundsPerBot = 20;
+        int bet = 10;
+        String strategy = "basic";
+        String mode = "thread";
+        int seats = 7;
+        String host = "127.0.0.1";
+        int port = 0; // 0 = embedded server
+        int batch = 0;
+
+        for (String arg : args) {
+            if (arg.startsWith("--bots=")) {
+                bots = Integer.parseInt(arg.substring("--bots=".length()));
+            } else if (arg.startsWith("--rounds=")) {
+                roundsPerBot = Integer.parseInt(arg.substring("--rounds=".length()));
+            } else if (arg.startsWith("--bet=")) {
+                bet = Integer.parseInt(arg.substring("--bet=".length()));
+            } else if (arg.startsWith("--strategy=")) {
+                strategy = arg.substring("--strategy=".length());
+            } else if (arg.startsWith("--mode=")) {
+                mode = arg.substring("--mode=".length());
+            } else if (arg.startsWith("--seats=")) {
+                seats = Integer.parseInt(arg.substring("--seats=".length()));
+            } else if (arg.startsWith("--host=")) {
+                host = arg.substring("--host=".length());
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--batch=")) {
+                batch = Integer.parseInt(arg.substring("--batch=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        if (port == 0) {
+            port = startEmbeddedServer(mode, seats);
+            System.out.printf("Embedded server (%s, %d seats/table) on port %d%n", mode, seats, port);
+        }
+        LoadGenerator gen = new LoadGenerator(PlayerStrategy.byName(strategy), roundsPerBot, bet, batch);
+        boolean ok = gen.run(host, port, bots);
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Same handler types as BlackjackServer, on an ephemeral port; every thread is a daemon or dies with exit()
+    private static int startEmbeddedServer(String mode, int seats) throws IOException {
+        TableManager tables = new TableManager(seats, 0);
+        if (mode.equals("nio")) {
+            NioServer server = new NioServer(0, Runtime.getRuntime().availableProcessors(), tables);
+            int port = server.bind(); // connections queue in the backlog until the acceptor runs
+            Thread.ofPlatform().daemon().name("nio-acceptor").start(() -> {
+                try {
+                    server.start();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            return port;
+        }
+
+        ServerSocket serverSocket = new ServerSocket(0, 4096);
+        ExecutorService handlers = BlackjackServer.newHandlerExecutor(mode);
+        Thread.ofPlatform().daemon().name("acceptor").start(() -> {
+            try {
+                while (true) {
+                    Socket s = serverSocket.accept();
+                    s.setTcpNoDelay(true);
+                    handlers.execute(new ClientHandlerB(s, tables));
+                }
+            } catch (IOException e) {
+                // process exit
+            }
+        });
+        return serverSocket.getLocalPort();
+    }
+
+    private boolean run(String host, int port, int n) throws IOException {
+        Selector selector = Selector.open();
+        List<Bot> bots = new ArrayList<>(n);
+        ByteBuffer readBuf = ByteBuffer.allocate(64 * 1024);
+
+        // 1. Connection setup: connect every bot and wait for every WELCOME
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            SocketChannel ch = SocketChannel.open(new InetSocketAddress(host, port));
+            ch.socket().setTcpNoDelay(true);
+            ch.configureBlocking(false);
+            Bot bot = new Bot(ch);
+            ch.register(selector, SelectionKey.OP_READ, bot);
+            bots.add(bot);
+        }
+        boolean ok = pump(selector, readBuf, () -> welcomed >= n);
+        long setupNanos = System.nanoTime() - t0;
+        System.out.printf("Connected %d/%d bots in %.1f ms (%.0f conns/s)%n",
+                welcomed, n, setupNanos / 1e6, welcomed / (setupNanos / 1e9));
+        if (!ok) {
+            System.out.println("Stalled during connection setup.");
+            return false;
+        }
+
+        // 2. Play: every seat is taken before the first START, so each table's bots play the same rounds
+        long t1 = System.nanoTime();
+        if (roundsPerBot > 0) {
+            for (Bot bot : bots) {
+                if (batchRounds > 0) {
+                    for (byte[] cmd : batchCmds) bot.write(cmd); // pipelined: no waiting between batches
+                } else {
+                    bot.write(START_CMD);
+                }
+            }
+            ok = pump(selector, readBuf, () -> finished >= n);
+        }
+        long playNanos = System.nanoTime() - t1;
+
+        for (Bot bot : bots) {
+            try { bot.ch.close(); } catch (IOException e) {}
+        }
+        selector.close();
+
+        double seconds = playNanos / 1e9;
+        System.out.printf("Played %d bot-rounds in %.2f s: %.0f cmds/s, %.0f bot-rounds/s%n",
+                rounds, seconds, commands / seconds, rounds / seconds);
+        if (batchRounds > 0) {
+            System.out.printf("Batches of %d rounds: %d results, %.0f rounds/s per bot table%n",
+                    batchRounds, batchResults, rounds / seconds / n);
+        }
+        System.out.println("latency     count      p50(us)    p99(us)   p999(us)    max(us)");
+        printLatency("bet", betLatency);
+        printLatency("action", actionLatency);
+        if (!ok) {
+            System.out.println("Stalled: " + finished + "/" + n + " bots finished their rounds.");
+        }
+        return ok;
+    }
+
+    private static void printLatency(String name, LatencyHistogram h) {
+        System.out.printf("%-8s %8d %12.1f %10.1f %10.1f %10.1f%n", name, h.getCount(),
+                h.valueAtPercentile(50) / 1e3, h.valueAtPercentile(99) / 1e3,
+                h.valueAtPercentile(99.9) / 1e3, h.getMax() / 1e3);
+    }
+
+    // Reads and dispatches until `done` holds; false if nothing arrives for STALL_MILLIS
+    private boolean pump(Selector selector, ByteBuffer readBuf, BooleanSupplier done) throws IOException {
+        while (!done.getAsBoolean()) {
+            if (writeFailure != null) throw writeFailure;
+            if (selector.select(STALL_MILLIS) == 0) return false;
+            for (SelectionKey key : selector.selectedKeys()) {
+                Bot bot = (Bot) key.attachment();
+                readBuf.clear();
+                int r = bot.ch.read(readBuf);
+                if (r < 0) throw new IOException("server closed the connection of " + bot.id);
+                bot.consume(readBuf.array(), r);
+            }
+            selector.selectedKeys().clear();
+        }
+        return true;
+    }
+
+    private static Card cardOf(String name) {
+        for (byte code = 0; code < 13; code++) {
+            if (WireProtocol.cardName(code).equals(name)) return Card.of(code);
+        }
+        throw new IllegalArgumentException("Unknown card: " + name);
+    }
+
+    /** One seated player: splits its stream into lines and answers the EVT records. */
+    private final class Bot implements ClientEvents.Listener {
+        final SocketChannel ch;
+        String id;
+        private int balance;
+        private int currentBet;
+        private final Hand hand = new Hand();
+        private Card dealerUp;
+        private int roundsPlayed;
+        private long betSentAt;
+        private long actionSentAt; // 0 = no action waiting for its response
+
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        Bot(SocketChannel ch) {
+            this.ch = ch;
+        }
+
+        void consume(byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[i];
+                if (b != '\n') {
+                    if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+                    line[lineLength++] = b;
+                    continue;
+                }
+                // Only EVT records become Strings; human-readable lines are skipped unparsed
+                if (lineLength > 4 && line[0] == 'E' && line[1] == 'V' && line[2] == 'T' && line[3] == ' ') {
+                    ClientEvents.dispatch(new String(line, 0, lineLength, StandardCharsets.UTF_8), this);
+                }
+                lineLength = 0;
+            }
+        }
+
+        // Called from listener callbacks, which can't throw: a failure is parked for pump() to rethrow
+        void write(byte[] command) {
+            ByteBuffer buf = ByteBuffer.wrap(command);
+            try {
+                // Commands are a few bytes and the server keeps reading, so this practically never spins
+                while (buf.hasRemaining()) ch.write(buf);
+                commands++;
+            } catch (IOException e) {
+                if (writeFailure == null) writeFailure = e;
+            }
+        }
+
+        private boolean mine(String playerId) {
+            return playerId.equals(id);
+        }
+
+        private void answered() {
+            if (actionSentAt != 0) {
+                actionLatency.record(System.nanoTime() - actionSentAt);
+                actionSentAt = 0;
+            }
+        }
+
+        @Override
+        public void onWelcome(String playerId, int balance, int tableId) {
+            this.id = playerId;
+            this.balance = balance;
+            welcomed++;
+        }
+
+        @Override
+        public void onBettingPhase() {
+            int amount = Math.min(betAmount, balance); // a broke bot bets 0 rather than stall the table
+            betSentAt = System.nanoTime();
+            write(("PLACE_BET:" + amount + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public void onBalance(int balance) {
+            this.balance = balance;
+        }
+
+        @Override
+        public void onBet(String playerId, int amount) {
+            if (!mine(playerId)) return;
+            betLatency.record(System.nanoTime() - betSentAt);
+            balance -= amount;
+            currentBet = amount;
+        }
+
+        @Override
+        public void onInitialDeal(String dealerCard, String card1, String card2, int total) {
+            dealerUp = cardOf(dealerCard);
+            hand.clear();
+            hand.add(cardOf(card1));
+            hand.add(cardOf(card2));
+        }
+
+        @Override
+        public void onYourTurn() {
+            byte action = strategy.decide(hand, dealerUp);
+            if (action == WireProtocol.ACTION_DOUBLE_DOWN && balance < currentBet) {
+                action = strategy.decideWithoutDouble(hand, dealerUp); // the server would refuse the double
+            }
+            byte[] command = ACTION_CMDS[action];
+            actionSentAt = System.nanoTime();
+            write(command);
+        }
+
+        @Override
+        public void onPlayerCard(String playerId, String card, int score, boolean doubleDown) {
+            if (!mine(playerId)) return;
+            answered();
+            hand.add(cardOf(card));
+        }
+
+        @Override
+        public void onStand(String playerId, int score) {
+            if (mine(playerId)) answered();
+        }
+
+        @Override
+        public void onSurrender(String playerId) {
+            if (mine(playerId)) answered();
+        }
+
+        @Override
+        public void onBotResult(int played, long wagered, long paidOut, int balance, int millis, int[] outcomes) {
+            rounds += played;
+            batchResults++;
+            this.balance = balance;
+            if (++roundsPlayed == batchCmds.length) finished++; // counts batches in this mode
+        }
+
+        @Override
+        public void onGameEnd() {
+            rounds++;
+            roundsPlayed++;
+            if (roundsPlayed < roundsPerBot) {
+                write(START_CMD);
+            } else if (roundsPlayed == roundsPerBot) {
+                finished++;
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Micro-benchmarks for the hot paths: scoring, card drawing, table broadcast fan-out,
+ * server command parsing, client event dispatch and lobby seating.
+ *
+ * Usage: java MicroBenchmarks [--filter=TEXT] [--warmup=N] [--iterations=N] [--time=MS] [--json=FILE]
+ *
+ * A small self-contained harness standing in for JMH. The game classes live in the default
+ * package, which JMH-generated code cannot import, so a JMH module needs them moved into a named
+ * package first, and then a Maven or Gradle build with a jmh source set. Until then this harness
+ * follows the same discipline: warmup iterations, timed measurement iterations, every result
+ * folded into a checksum so nothing is dead code. --json writes a JMH-style result array
+ * (benchmark, params, primaryMetric.score/scoreError/scoreUnit/rawData) for regression tracking.
+ */
+public class MicroBenchmarks {
+    private static final int BATCH = 1024; // operations per timed call
+
+    private record Bench(String name, String params, LongSupplier batch) {}
+    private record Result(Bench bench, double[] nsPerOp, long checksum) {}
+
+    public static void main(String[] args) throws Exception {
+        String filter = "";
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMillis = 300;
+        String json = null;
+        for (String arg : args) {
+            if (arg.startsWith("--filter=")) {
+                filter = arg.substring("--filter=".length());
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            } else if (arg.startsWith("--time=")) {
+                iterationMillis = Long.parseLong(arg.substring("--time=".length()));
+            } else if (arg.startsWith("--json=")) {
+                json = arg.substring("--json=".length());
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        List<Bench> benches = new ArrayList<>();
+        addScoring(benches);
+        addDrawing(benches);
+        addBroadcast(benches);
+        addCommandParsing(benches);
+        addClientDispatch(benches);
+        addSeating(benches);
+
+        System.out.println("benchmark                        params      ns/op     error");
+        List<Result> results = new ArrayList<>();
+        for (Bench b : benches) {
+            if (!b.name().contains(filter)) continue;
+            Result r = measure(b, warmup, iterations, iterationMillis);
+            results.add(r);
+            System.out.printf(Locale.ROOT, "%-32s %-8s %9.2f  +- %6.2f%n", b.name(), b.params(), mean(r.nsPerOp()), error(r.nsPerOp()));
+        }
+        if (json != null) {
+            Files.writeString(Path.of(json), toJson(results, warmup, iterations, iterationMillis));
+            System.out.println("Results written to " + json);
+        }
+    }
+
+    private static Result measure(Bench b, int warmup, int iterations, long iterationMillis) {
+        long checksum = 0;
+        double[] nsPerOp = new double[iterations];
+        for (int i = 0; i < warmup + iterations; i++) {
+            long ops = 0;
+            long start = System.nanoTime();
+            long deadline = start + iterationMillis * 1_000_000;
+            long now;
+            do {
+                checksum += b.batch().getAsLong();
+                ops += BATCH;
+                now = System.nanoTime();
+            } while (now < deadline);
+            if (i >= warmup) nsPerOp[i - warmup] = (double) (now - start) / ops;
+        }
+        return new Result(b, nsPerOp, checksum);
+    }
+
+    // ---- Scoring: reference list rescans vs the incremental Hand, on hands dealt like real play ----
+
+    private static void addScoring(List<Bench> benches) {
+        // Every intermediate hand of players following basic strategy, dealt from a 6-deck shoe
+        Shoe shoe = new Shoe(6, 0.75, new SplittableRandom(7));
+        List<List<Card>> hands = new ArrayList<>();
+        List<Hand> built = new ArrayList<>();
+        Hand hand = new Hand();
+        while (hands.size() < 4096) {
+            shoe.shuffleIfNeeded();
+            Card up = shoe.drawCard();
+            List<Card> cards = new ArrayList<>();
+            hand.clear();
+            for (int i = 0; i < 2; i++) {
+                Card c = shoe.drawCard();
+                cards.add(c);
+                hand.add(c);
+            }
+            addHand(hands, built, cards);
+            while (!hand.isBust() && PlayerStrategy.BASIC.decide(hand, up) == WireProtocol.ACTION_HIT) {
+                Card c = shoe.drawCard();
+                cards.add(c);
+                hand.add(c);
+                addHand(hands, built, cards);
+            }
+        }
+        int mask = 4096 - 1;
+
+        benches.add(new Bench("score.calculateScore", "list", new LongSupplier() {
+            int i;
+            public long getAsLong() {
+                long sum = 0;
+                for (int n = 0; n < BATCH; n++) sum += BlackjackScoreCalculator.calculateScore(hands.get(i++ & mask));
+                return sum;
+            }
+        }));
+        benches.add(new Bench("score.isSoftHand", "list", new LongSupplier() {
+            int i;
+            public long getAsLong() {
+                long sum = 0;
+                for (int n = 0; n < BATCH; n++) if (BlackjackScoreCalculator.isSoftHand(hands.get(i++ & mask))) sum++;
+                return sum;
+            }
+        }));
+        // The same hands kept in Hands: score and soft are field reads
+        benches.add(new Bench("score.handQuery", "hand", new LongSupplier() {
+            int i;
+            public long getAsLong() {
+                long sum = 0;
+                for (int n = 0; n < BATCH; n++) {
+                    Hand h = built.get(i++ & mask);
+                    sum += h.getScore() + (h.isSoft() ? 1 : 0);
+                }
+                return sum;
+            }
+        }));
+    }
+
+    private static void addHand(List<List<Card>> hands, List<Hand> built, List<Card> cards) {
+        hands.add(List.copyOf(cards));
+        Hand h = new Hand();
+        for (Card c : cards) h.add(c);
+        built.add(h);
+    }
+
+    // ---- Drawing one card ----
+
+    private static void addDrawing(List<Bench> benches) {
+        benches.add(new Bench("draw.mathRandom", "legacy", () -> {
+            // The original drawRandom: Rank.values() clone and the shared Math.random generator
+            long sum = 0;
+            for (int n = 0; n < BATCH; n++) {
+                Card.Rank[] ranks = Card.Rank.values();
+                sum += Card.of(ranks[(int) (Math.random() * ranks.length)]).getValue();
+            }
+            return sum;
+        }));
+        benches.add(new Bench("draw.drawRandom", "tlr", () -> {
+            long sum = 0;
+            for (int n = 0; n < BATCH; n++) sum += Card.drawRandom().getValue();
+            return sum;
+        }));
+        SplittableRandom random = new SplittableRandom(1);
+        benches.add(new Bench("draw.splittableRandom", "infinite", () -> {
+            long sum = 0;
+            for (int n = 0; n < BATCH; n++) sum += Card.of(random.nextInt(13)).getValue();
+            return sum;
+        }));
+        Shoe shoe = new Shoe(6, 0.75, new SplittableRandom(1));
+        benches.add(new Bench("draw.shoe", "6 decks", () -> {
+            long sum = 0;
+            for (int n = 0; n < BATCH; n++) {
+                if (shoe.remaining() == 0) shoe.shuffle();
+                sum += shoe.drawCard().getValue();
+            }
+            return sum;
+        }));
+    }
+
+    // ---- GameRoom.broadcast to 1-7 in-memory players ----
+
+    // A seated player whose outbound queue is drained right away (no socket)
+    private static final class SinkPlayer implements TablePlayer {
+        private final OutboundQueue outbound = new OutboundQueue(1024, OutboundQueue.Policy.DROP_OLDEST, () -> {});
+        private final List<ByteBuffer> drained = new ArrayList<>();
+        private final Hand hand = new Hand();
+        private final String id;
+        private long bytes;
+
+        SinkPlayer(String id) { this.id = id; }
+
+        public void send(ServerMessage msg) {
+            outbound.offer(msg.textFrame().duplicate());
+        }
+
+        long drain() {
+            drained.clear();
+            outbound.pollBatch(drained, 1024);
+            for (ByteBuffer b : drained) bytes += b.remaining();
+            return bytes;
+        }
+
+        public String getPlayerId() { return id; }
+        public int getBalance() { return 1000; }
+        public void decreaseBalance(int amount) {}
+        public void increaseBalance(int amount) {}
+        public int getCurrentBet() { return 0; }
+        public void setCurrentBet(int amount) {}
+        public boolean isBetPlaced() { return false; }
+        public void setBetPlaced(boolean placed) {}
+        public boolean isSurrender() { return false; }
+        public void setSurrender(boolean surrender) {}
+        public Hand getHand() { return hand; }
+        public void resetRound() {}
+    }
+
+    private static void addBroadcast(List<Bench> benches) {
+        for (int seats = 1; seats <= 7; seats++) {
+            GameRoom room = new GameRoom(1, Runnable::run, null, 0); // runs each broadcast inline
+            SinkPlayer[] sinks = new SinkPlayer[seats];
+            for (int i = 0; i < seats; i++) {
+                sinks[i] = new SinkPlayer("Player" + i);
+                room.join(sinks[i]);
+            }
+            // A fresh message per broadcast, so text encoding is part of the cost (as at a live table)
+            benches.add(new Bench("broadcast.fanout", seats + " seats", new LongSupplier() {
+                int n;
+                public long getAsLong() {
+                    long sum = 0;
+                    for (int i = 0; i < BATCH; i++) {
+                        room.broadcast(ServerMessage.hit("Player0", Card.of(n++ % 13), 17));
+                        if ((i & 255) == 255) for (SinkPlayer s : sinks) sum += s.drain();
+                    }
+                    for (SinkPlayer s : sinks) sum += s.drain();
+                    return sum;
+                }
+            }));
+        }
+    }
+
+    // ---- ClientHandlerB.handleCommand: split, dispatch and the reply it queues ----
+
+    private static void addCommandParsing(List<Bench> benches) {
+        TableManager tables = new TableManager(1, 1, 0, Runnable::run); // table tasks run inline, so the reply is queued on return
+        ClientHandlerB handler = new ClientHandlerB((Socket) null, tables);
+        handler.onConnected();
+        String[] lines = {"BALANCE", "PLACE_BET:100", "PLAYER_ACTION:Hit", "START"};
+        List<ByteBuffer> drained = new ArrayList<>();
+        benches.add(new Bench("command.handleCommand", "text", new LongSupplier() {
+            int n;
+            public long getAsLong() {
+                long sum = 0;
+                for (int i = 0; i < BATCH; i++) {
+                    handler.handleCommand(lines[n++ & 3]); // every line ends in a reply (START toggles betting)
+                    if ((i & 63) == 63) {
+                        drained.clear();
+                        sum += handler.getOutbound().pollBatch(drained, 1024);
+                    }
+                }
+                return sum;
+            }
+        }));
+    }
+
+    // ---- Client side: one round's server events through ClientEvents ----
+
+    private static void addClientDispatch(List<Bench> benches) {
+        ServerMessage[] round = {
+                ServerMessage.welcome("Player1", 1000, 1),
+                ServerMessage.GAME_PHASE,
+                ServerMessage.balance(WireProtocol.BALANCE_AT_BETTING, 1000),
+                ServerMessage.betPlaced("Player1", 100),
+                ServerMessage.ROUND_START,
+                ServerMessage.dealerOpen(Card.of(Card.Rank.KING), 10),
+                ServerMessage.initialDeal(Card.of(Card.Rank.KING), Card.of(Card.Rank.SIX), Card.of(Card.Rank.ACE), 17),
+                ServerMessage.turn("Player1"),
+                ServerMessage.YOUR_TURN,
+                ServerMessage.hit("Player1", Card.of(Card.Rank.THREE), 20),
+                ServerMessage.stand("Player1", 20),
+                ServerMessage.dealerTurn(10),
+                ServerMessage.dealerDraw(Card.of(Card.Rank.SEVEN), 17),
+                ServerMessage.dealerFinal(17),
+                ServerMessage.settlement("Player1", WireProtocol.OUTCOME_WIN, 200, 20, 17),
+                ServerMessage.balance(WireProtocol.BALANCE_AFTER_SETTLEMENT, 1100),
+                ServerMessage.gameResult(WireProtocol.STATUS_WIN),
+                ServerMessage.GAME_END,
+        };
+        // What a text client reads: each human line followed by its EVT record
+        List<String> textLines = new ArrayList<>();
+        List<ByteBuffer> frames = new ArrayList<>();
+        for (ServerMessage m : round) {
+            ByteBuffer text = m.textFrame().duplicate();
+            byte[] bytes = new byte[text.remaining()];
+            text.get(bytes);
+            for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) textLines.add(line);
+            ByteBuffer bin = m.binaryFrame().duplicate();
+            byte[] body = new byte[bin.getShort()];
+            bin.get(body);
+            frames.add(ByteBuffer.wrap(body)); // as WireProtocol.readFrame hands it to a client
+        }
+        String[] lines = textLines.toArray(new String[0]);
+        ByteBuffer[] bodies = frames.toArray(new ByteBuffer[0]);
+        long[] seen = new long[1];
+        ClientEvents.Listener listener = new ClientEvents.Listener() {
+            @Override public void onPlayerCard(String playerId, String card, int score, boolean doubleDown) { seen[0] += score; }
+            @Override public void onDealerCard(String card, int score) { seen[0] += score; }
+            @Override public void onBalance(int balance) { seen[0] += balance; }
+        };
+
+        benches.add(new Bench("client.dispatch", "text", new LongSupplier() {
+            int n;
+            public long getAsLong() {
+                for (int i = 0; i < BATCH; i++) ClientEvents.dispatch(lines[n++ % lines.length], listener);
+                return seen[0];
+            }
+        }));
+        benches.add(new Bench("client.dispatch", "binary", new LongSupplier() {
+            int n;
+            public long getAsLong() {
+                for (int i = 0; i < BATCH; i++) ClientEvents.dispatch(bodies[n++ % bodies.length], listener);
+                return seen[0];
+            }
+        }));
+    }
+
+    // ---- SeatIndex: quick seat and join over 20000 open tables, most of them full ----
+
+    private static void addSeating(List<Bench> benches) {
+        int tables = 20_000;
+        SeatIndex index = new SeatIndex(1, 7, 65_535);
+        GameRoom[] rooms = new GameRoom[tables];
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < tables; i++) {
+            rooms[i] = new GameRoom(i + 1, Runnable::run, null, 0);
+            // One table in a hundred has seats left, so a quick seat passes over the empty buckets first
+            index.add(rooms[i], 0, i % 100 == 0 ? random.nextInt(7) : 7);
+        }
+        benches.add(new Bench("seats.quickSeat", String.valueOf(tables), () -> {
+            long sum = 0;
+            for (int i = 0; i < BATCH; i++) {
+                int slot = index.quickSeat(0);
+                sum += slot;
+                index.release(slot);
+            }
+            return sum;
+        }));
+        benches.add(new Bench("seats.reserve", String.valueOf(tables), new LongSupplier() {
+            int n;
+            public long getAsLong() {
+                long sum = 0;
+                for (int i = 0; i < BATCH; i++) {
+                    GameRoom room = rooms[(n++ % 200) * 100]; // the tables with seats left
+                    if (index.reserve(room.getSlot(), room)) sum += index.release(room.getSlot());
+                }
+                return sum;
+            }
+        }));
+    }
+
+    // ---- Statistics and JSON ----
+
+    private static double mean(double[] xs) {
+        double sum = 0;
+        for (double x : xs) sum += x;
+        return sum / xs.length;
+    }
+
+    // Half-width of a 99.9% confidence interval (normal approximation)
+    private static double error(double[] xs) {
+        if (xs.length < 2) return Double.NaN;
+        double m = mean(xs);
+        double ss = 0;
+        for (double x : xs) ss += (x - m) * (x - m);
+        return 3.29 * Math.sqrt(ss / (xs.length - 1) / xs.length);
+    }
+
+    private static String toJson(List<Result> results, int warmup, int iterations, long iterationMillis) {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            double err = error(r.nsPerOp());
+            sb.append("  {\n");
+            sb.append("    \"benchmark\": \"").append(r.bench().name()).append("\",\n");
+            sb.append("    \"mode\": \"avgt\",\n");
+            sb.append("    \"params\": {\"case\": \"").append(r.bench().params()).append("\"},\n");
+            sb.append("    \"jdkVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+            sb.append("    \"warmupIterations\": ").append(warmup).append(",\n");
+            sb.append("    \"measurementIterations\": ").append(iterations).append(",\n");
+            sb.append("    \"measurementTime\": \"").append(iterationMillis).append(" ms\",\n");
+            sb.append("    \"primaryMetric\": {\n");
+            sb.append(String.format(Locale.ROOT, "      \"score\": %.4f,%n", mean(r.nsPerOp())));
+            sb.append("      \"scoreError\": ").append(Double.isNaN(err) ? "\"NaN\"" : String.format(Locale.ROOT, "%.4f", err)).append(",\n");
+            sb.append("      \"scoreUnit\": \"ns/op\",\n");
+            sb.append("      \"rawData\": [[");
+            for (int j = 0; j < r.nsPerOp().length; j++) {
+                if (j > 0) sb.append(", ");
+                sb.append(String.format(Locale.ROOT, "%.4f", r.nsPerOp()[j]));
+            }
+            sb.append("]]\n    }\n  }").append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        return sb.append("]\n").toString();
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.Serial;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Socket-free simulation of GameRoom rounds: one player against the dealer, dealt from a Shoe,
+ * played by a PlayerStrategy and settled with PayoutRules, exactly like a live table.
+ *
+ * Usage: java MonteCarloSimulator [--rounds=N] [--seed=S] [--strategy=basic|mimic-dealer|never-bust]
+ *                                 [--decks=1-8] [--penetration=F] [--bet=N] [--threads=N]
+ *
+ * Rounds are split over a fork-join tree with a fixed shape; every fork splits the parent's
+ * SplittableRandom, so each leaf has its own RNG stream and the same seed always gives the
+ * same result regardless of thread count or scheduling.
+ */
+public class MonteCarloSimulator {
+    private static final long LEAF_ROUNDS = 1 << 16;
+
+    /** Per-round net result in units of the initial bet, plus outcome counts. */
+    public static final class Result {
+        long rounds;
+        double sum;
+        double sumSq;
+        final long[] outcomes = new long[7]; // by WireProtocol.OUTCOME_*
+        long doubles;
+        double doubleSum;
+
+        void add(double net, byte outcome, boolean doubled) {
+            rounds++;
+            sum += net;
+            sumSq += net * net;
+            outcomes[outcome]++;
+            if (doubled) {
+                doubles++;
+                doubleSum += net;
+            }
+        }
+
+        void merge(Result o) {
+            rounds += o.rounds;
+            sum += o.sum;
+            sumSq += o.sumSq;
+            for (int i = 0; i < outcomes.length; i++) outcomes[i] += o.outcomes[i];
+            doubles += o.doubles;
+            doubleSum += o.doubleSum;
+        }
+
+        public long getRounds() { return rounds; }
+        public double mean() { return sum / rounds; }
+        public double variance() { return sumSq / rounds - mean() * mean(); }
+        public double houseEdge() { return -mean(); }
+        public double halfWidth95() { return 1.96 * Math.sqrt(variance() / rounds); }
+        public long getOutcomeCount(byte outcome) { return outcomes[outcome]; }
+        public long getDoubles() { return doubles; }
+        public double doubleMean() { return doubles == 0 ? 0 : doubleSum / doubles; }
+    }
+
+    private final int decks;
+    private final double penetration;
+    private final PlayerStrategy strategy;
+    private final int bet;
+
+    public MonteCarloSimulator(int decks, double penetration, PlayerStrategy strategy, int bet) {
+        new Shoe(decks, penetration, new SplittableRandom(0)); // validates
+        this.decks = decks;
+        this.penetration = penetration;
+        this.strategy = strategy;
+        this.bet = bet;
+    }
+
+    public Result run(long rounds, long seed, ForkJoinPool pool) {
+        return pool.invoke(new Chunk(rounds, new SplittableRandom(seed)));
+    }
+
+    private final class Chunk extends RecursiveTask<Result> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long rounds;
+        private final transient SplittableRandom random; // never serialized: chunks only live inside one run
+
+        Chunk(long rounds, SplittableRandom random) {
+            this.rounds = rounds;
+            this.random = random;
+        }
+
+        @Override
+        protected Result compute() {
+            if (rounds <= LEAF_ROUNDS) {
+                return playRounds(rounds, random);
+            }
+            Chunk left = new Chunk(rounds / 2, random.split());
+            Chunk right = new Chunk(rounds - rounds / 2, random);
+            left.fork();
+            Result result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+
+    private Result playRounds(long rounds, SplittableRandom random) {
+        Shoe shoe = new Shoe(decks, penetration, random);
+        Hand player = new Hand();
+        Result result = new Result();
+        for (long i = 0; i < rounds; i++) {
+            playRound(shoe, player, result);
+        }
+        return result;
+    }
+
+    // Same order and rules as GameRoom.startRound / handlePlayerAction / dealerStep / calculateResults
+    private void playRound(Shoe shoe, Hand player, Result result) {
+        shoe.shuffleIfNeeded();
+        Card up = shoe.drawCard();
+        int dealerState = BlackjackScoreCalculator.dealerNext(BlackjackScoreCalculator.DEALER_START, up.getCode());
+        player.clear();
+        player.add(shoe.drawCard());
+        player.add(shoe.drawCard());
+
+        int wager = bet;
+        boolean surrendered = false;
+        boolean doubled = false;
+        boolean turnOver = false;
+        while (!turnOver) {
+            switch (strategy.decide(player, up)) {
+                case WireProtocol.ACTION_HIT:
+                    player.add(shoe.drawCard());
+                    turnOver = player.isBust();
+                    break;
+                case WireProtocol.ACTION_DOUBLE_DOWN:
+                    wager += bet;
+                    doubled = true;
+                    player.add(shoe.drawCard());
+                    turnOver = true;
+                    break;
+                case WireProtocol.ACTION_SURRENDER:
+                    surrendered = true;
+                    turnOver = true;
+                    break;
+                default:
+                    turnOver = true; // Stand
+            }
+        }
+
+        // GameRoom always plays the dealer out, even when nobody is left to beat
+        while (!BlackjackScoreCalculator.dealerStands(dealerState)) {
+            dealerState = BlackjackScoreCalculator.dealerNext(dealerState, shoe.draw());
+        }
+
+        byte outcome = PayoutRules.outcome(player, surrendered, BlackjackScoreCalculator.dealerScore(dealerState));
+        int amount = PayoutRules.payout(outcome, wager);
+        result.add((double) (amount - wager) / bet, outcome, doubled);
+    }
+
+    public static void main(String[] args) {
+        long rounds = 10_000_000;
+        long seed = 1;
+        String strategy = "basic";
+        int decks = 6;
+        double penetration = 0.75;
+        int bet = 100; // large enough that the 2.5x blackjack prize isn't truncated
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (String arg : args) {
+            if (arg.startsWith("--rounds=")) {
+                rounds = Long.parseLong(arg.substring("--rounds=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--strategy=")) {
+                strategy = arg.substring("--strategy=".length());
+            } else if (arg.startsWith("--decks=")) {
+                decks = Integer.parseInt(arg.substring("--decks=".length()));
+            } else if (arg.startsWith("--penetration=")) {
+                penetration = Double.parseDouble(arg.substring("--penetration=".length()));
+            } else if (arg.startsWith("--bet=")) {
+                bet = Integer.parseInt(arg.substring("--bet=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        MonteCarloSimulator sim = new MonteCarloSimulator(decks, penetration, PlayerStrategy.byName(strategy), bet);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        Result r = sim.run(rounds, seed, pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("strategy=%s decks=%d penetration=%.2f bet=%d seed=%d threads=%d%n",
+                strategy, decks, penetration, bet, seed, threads);
+        System.out.printf("rounds        %d in %.2fs (%.1fM rounds/min)%n", r.rounds, seconds, r.rounds / seconds * 60 / 1e6);
+        System.out.printf("house edge    %+.4f%%  (95%% CI %+.4f%% .. %+.4f%%)%n",
+                r.houseEdge() * 100, (r.houseEdge() - r.halfWidth95()) * 100, (r.houseEdge() + r.halfWidth95()) * 100);
+        System.out.printf("per round     mean %+.5f  variance %.5f  stddev %.5f (initial bets)%n",
+                r.mean(), r.variance(), Math.sqrt(r.variance()));
+        System.out.printf("double down   %.2f%% of rounds, mean %+.4f per initial bet%n",
+                100.0 * r.doubles / r.rounds, r.doubleMean());
+        String[] names = {"surrender", "bust", "dealer bust", "blackjack", "win", "push", "lose"};
+        for (int i = 0; i < names.length; i++) {
+            System.out.printf("  %-12s %6.2f%%%n", names[i], 100.0 * r.outcomes[i] / r.rounds);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One player connection in NIO mode.
+ * Inbound bytes are framed into "COMMAND:DATA" lines (or WireProtocol frames once negotiated)
+ * and handed to the ClientHandlerB;
+ * outbound lines wait in the handler's OutboundQueue and are written by the owning event loop.
+ */
+public class NioConnection {
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final SocketChannel channel;
+    private final NioServer.EventLoop loop;
+    private final BufferPool pool;
+    private ClientHandlerB handler;
+    private SelectionKey key;
+
+    // Partial line carried over between reads (borrowed from the pool)
+    private ByteBuffer pending;
+
+    // Frames drained from the OutboundQueue go out in one gathering write per batch
+    private final List<ByteBuffer> batch = new ArrayList<>();
+    private final ByteBuffer[] outBufs = new ByteBuffer[64];
+    private int outIndex = 0;
+    private int outCount = 0;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    NioConnection(SocketChannel channel, NioServer.EventLoop loop, BufferPool pool) {
+        this.channel = channel;
+        this.loop = loop;
+        this.pool = pool;
+    }
+
+    void attach(ClientHandlerB handler, SelectionKey key) {
+        this.handler = handler;
+        this.key = key;
+    }
+
+    SocketChannel channel() { return channel; }
+    SelectionKey key() { return key; }
+
+    public String getRemoteAddress() {
+        try {
+            return String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    // Called on the event loop when the channel is readable
+    void onReadable() {
+        ByteBuffer buf = pending != null ? pending : pool.acquire();
+        pending = null;
+        int n;
+        try {
+            n = channel.read(buf);
+        } catch (IOException e) {
+            pool.release(buf);
+            close();
+            return;
+        }
+        if (n < 0) {
+            pool.release(buf);
+            close();
+            return;
+        }
+
+        buf.flip();
+        int start = buf.position();
+        while (start < buf.limit() && !closed.get()) {
+            int next = handler.isBinary() ? decodeFrame(buf, start) : decodeLine(buf, start);
+            if (next < 0) break; // incomplete, wait for more bytes
+            start = next;
+        }
+        if (closed.get()) {
+            pool.release(buf);
+            return;
+        }
+        buf.position(start);
+
+        if (buf.hasRemaining()) {
+            buf.compact();
+            if (buf.position() >= Math.min(MAX_LINE_LENGTH, buf.capacity())) {
+                // 줄바꿈 없이 너무 긴 입력은 프로토콜 위반으로 간주 (binary frames are capped far below this)
+                pool.release(buf);
+                close();
+                return;
+            }
+            pending = buf;
+        } else {
+            pool.release(buf);
+        }
+    }
+
+    // One "COMMAND:DATA" line starting at `start`; returns the index after it, or -1 if incomplete
+    private int decodeLine(ByteBuffer buf, int start) {
+        for (int i = start; i < buf.limit(); i++) {
+            if (buf.get(i) == '\n') {
+                int end = i;
+                if (end > start && buf.get(end - 1) == '\r') end--;
+                byte[] line = new byte[end - start];
+                buf.get(start, line);
+                handler.handleCommand(new String(line, StandardCharsets.UTF_8));
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // One binary frame ([u16 length][opcode][payload]) starting at `start`
+    private int decodeFrame(ByteBuffer buf, int start) {
+        if (buf.limit() - start < 2) return -1;
+        int length = buf.getShort(start) & 0xFFFF;
+        if (length == 0 || length > WireProtocol.MAX_FRAME) {
+            close();
+            return -1;
+        }
+        if (buf.limit() - start - 2 < length) return -1;
+        byte[] body = new byte[length];
+        buf.get(start + 2, body);
+        try {
+            handler.handleFrame(ByteBuffer.wrap(body));
+        } catch (RuntimeException e) {
+            close(); // malformed payload
+        }
+        return start + 2 + length;
+    }
+
+    // Called on the event loop when the channel is writable
+    void onWritable() {
+        OutboundQueue outbound = handler.getOutbound();
+        try {
+            while (true) {
+                if (outIndex == outCount) {
+                    batch.clear();
+                    int n = outbound.pollBatch(batch, outBufs.length);
+                    if (n == 0) break;
+                    batch.toArray(outBufs);
+                    outIndex = 0;
+                    outCount = n;
+                }
+                ServerMetrics.bytesWritten(channel.write(outBufs, outIndex, outCount - outIndex));
+                while (outIndex < outCount && !outBufs[outIndex].hasRemaining()) {
+                    outBufs[outIndex++] = null;
+                }
+                if (outIndex < outCount) {
+                    return; // socket buffer full, wait for the next OP_WRITE
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            writeScheduled.set(false);
+            // A writer may have queued between the last poll and the flag reset
+            if (!outbound.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Thread-safe: called after the handler queued a line
+    public void requestFlush() {
+        if (closed.get()) return;
+        if (writeScheduled.compareAndSet(false, true)) {
+            loop.requestWrite(this);
+        }
+    }
+
+    // Thread-safe close: the event loop performs the actual close (and the table leave) later,
+    // so a table worker never re-enters its own table from here.
+    public void closeLater() {
+        if (!closed.get()) {
+            loop.requestClose(this);
+        }
+    }
+
+    // Event loop thread only
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        if (key != null) key.cancel();
+        try { channel.close(); } catch (IOException e) {}
+        if (pending != null) {
+            pool.release(pending);
+            pending = null;
+        }
+        outIndex = 0;
+        outCount = 0;
+        if (handler != null) handler.onDisconnected();
+    }
+
+    public boolean isClosed() { return closed.get(); }
+}
@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Selector-based server front end.
+ * One acceptor thread hands new channels round-robin to a small fixed set of
+ * event loops; each loop multiplexes reads and writes for all of its connections.
+ */
+public class NioServer {
+    private final int port;
+    private final TableManager tableManager;
+    private final EventLoop[] loops;
+    private final BufferPool bufferPool = new BufferPool(4096, 1024);
+    private ServerSocketChannel serverChannel;
+
+    public NioServer(int port, int ioThreads, TableManager tableManager) throws IOException {
+        this.port = port;
+        this.tableManager = tableManager;
+        this.loops = new EventLoop[Math.max(1, ioThreads)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+    }
+
+    /** Opens the listening socket (port 0 = any free port) and returns the port it got; start() binds if this wasn't called. */
+    public int bind() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Blocks the calling thread in the accept loop
+    public void start() throws IOException {
+        if (serverChannel == null) bind();
+        for (EventLoop loop : loops) {
+            loop.thread.start();
+        }
+
+        try (ServerSocketChannel serverChannel = this.serverChannel) {
+            System.out.println("Blackjack Server (NIO, " + loops.length + " event loops) started on port " + serverChannel.socket().getLocalPort());
+
+            int next = 0;
+            while (true) {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            }
+        }
+    }
+
+    class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<NioConnection> writeRequests = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<NioConnection> closeRequests = new ConcurrentLinkedQueue<>();
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-loop-" + index);
+        }
+
+        void register(SocketChannel channel) {
+            newChannels.offer(channel);
+            selector.wakeup();
+        }
+
+        void requestWrite(NioConnection connection) {
+            writeRequests.offer(connection);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        void requestClose(NioConnection connection) {
+            closeRequests.offer(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    registerNewChannels();
+                    armWrites();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        NioConnection conn = (NioConnection) key.attachment();
+                        if (!key.isValid()) continue;
+                        if (key.isReadable()) conn.onReadable();
+                        if (key.isValid() && key.isWritable()) conn.onWritable();
+                    }
+                    // Writes queued by commands handled on this loop don't wake the selector
+                    armWrites();
+                    processCloses();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void registerNewChannels() {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                NioConnection conn = new NioConnection(channel, this, bufferPool);
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ, conn);
+                    ClientHandlerB handler = new ClientHandlerB(conn, tableManager);
+                    conn.attach(handler, key);
+                    System.out.println("New player connected: " + conn.getRemoteAddress());
+                    handler.onConnected();
+                } catch (IOException e) {
+                    try { channel.close(); } catch (IOException ignored) {}
+                }
+            }
+        }
+
+        private void processCloses() {
+            NioConnection conn;
+            while ((conn = closeRequests.poll()) != null) {
+                conn.close();
+            }
+        }
+
+        private void armWrites() {
+            NioConnection conn;
+            while ((conn = writeRequests.poll()) != null) {
+                SelectionKey key = conn.key();
+                if (key != null && key.isValid()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+        }
+    }
+}
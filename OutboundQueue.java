@@ -0,0 +1,101 @@
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded per-connection queue of outbound lines (pre-encoded frames, see Frames).
+ * GameRoom only enqueues (never touches the socket), and the connection's own writer drains the
+ * queue in batches with one flush per batch. When a slow consumer fills its queue, the configured
+ * policy either drops the oldest line or disconnects the player.
+ */
+public class OutboundQueue {
+    public enum Policy { DISCONNECT, DROP_OLDEST }
+
+    // Defaults for new queues (set once from BlackjackServer startup options)
+    private static volatile int defaultCapacity = 256;
+    private static volatile Policy defaultPolicy = Policy.DISCONNECT;
+
+    // Server-wide metrics
+    private static final LongAdder queuedLines = new LongAdder();   // lines currently waiting in all queues
+    private static final AtomicInteger maxDepth = new AtomicInteger(); // deepest single queue seen
+    private static final LongAdder droppedLines = new LongAdder();
+    private static final LongAdder slowConsumerDisconnects = new LongAdder();
+
+    private final ArrayBlockingQueue<ByteBuffer> queue;
+    private final Policy policy;
+    private final Runnable onOverflow;
+    private volatile boolean closed = false;
+
+    public OutboundQueue(int capacity, Policy policy, Runnable onOverflow) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.onOverflow = onOverflow;
+    }
+
+    /** Queue using the server defaults; onOverflow runs once when the DISCONNECT policy trips. */
+    public static OutboundQueue withDefaults(Runnable onOverflow) {
+        return new OutboundQueue(defaultCapacity, defaultPolicy, onOverflow);
+    }
+
+    public static void setDefaults(int capacity, Policy policy) {
+        defaultCapacity = capacity;
+        defaultPolicy = policy;
+    }
+
+    /** Never blocks. Returns false if the line was not queued (queue closed or consumer disconnected). */
+    public boolean offer(ByteBuffer line) {
+        if (closed) return false;
+        while (!queue.offer(line)) {
+            if (policy == Policy.DROP_OLDEST) {
+                if (queue.poll() != null) {
+                    queuedLines.decrement();
+                    droppedLines.increment();
+                }
+            } else {
+                closed = true;
+                slowConsumerDisconnects.increment();
+                onOverflow.run();
+                return false;
+            }
+        }
+        queuedLines.increment();
+        int depth = queue.size();
+        if (depth > maxDepth.get()) {
+            maxDepth.accumulateAndGet(depth, Math::max);
+        }
+        return true;
+    }
+
+    /** Blocks until at least one line is available, then takes up to max lines. */
+    public int takeBatch(List<ByteBuffer> batch, int max) throws InterruptedException {
+        batch.add(queue.take());
+        int n = 1 + queue.drainTo(batch, max - 1);
+        queuedLines.add(-n);
+        return n;
+    }
+
+    /** Non-blocking variant for the NIO event loop. */
+    public int pollBatch(List<ByteBuffer> batch, int max) {
+        int n = queue.drainTo(batch, max);
+        queuedLines.add(-n);
+        return n;
+    }
+
+    public boolean isEmpty() { return queue.isEmpty(); }
+    public int size() { return queue.size(); }
+    public int remainingCapacity() { return queue.remainingCapacity(); }
+
+    public void close() {
+        closed = true;
+        int n = 0;
+        while (queue.poll() != null) n++;
+        queuedLines.add(-n);
+    }
+
+    public static long getQueuedLines() { return queuedLines.sum(); }
+    public static int getMaxDepth() { return maxDepth.get(); }
+    public static long getDroppedLines() { return droppedLines.sum(); }
+    public static long getSlowConsumerDisconnects() { return slowConsumerDisconnects.sum(); }
+}
@@ -0,0 +1,40 @@
+/**
+ * Settlement rules shared by GameRoom and the offline simulator, so both pay out exactly alike.
+ * Outcomes and statuses are the WireProtocol codes.
+ */
+public final class PayoutRules {
+    private PayoutRules() {}
+
+    public static byte outcome(Hand player, boolean surrendered, int dealerScore) {
+        if (surrendered) return WireProtocol.OUTCOME_SURRENDER;
+        if (player.isBust()) return WireProtocol.OUTCOME_BUST;
+        if (dealerScore > 21) return WireProtocol.OUTCOME_DEALER_BUST;
+        if (player.isBlackjack() && dealerScore != 21) return WireProtocol.OUTCOME_BLACKJACK;
+        int score = player.getScore();
+        if (score > dealerScore) return WireProtocol.OUTCOME_WIN;
+        if (score == dealerScore) return WireProtocol.OUTCOME_PUSH;
+        return WireProtocol.OUTCOME_LOSE;
+    }
+
+    /** Amount credited back to the player (refund or prize) for a settled bet. */
+    public static int payout(byte outcome, int bet) {
+        switch (outcome) {
+            case WireProtocol.OUTCOME_SURRENDER: return bet / 2;
+            case WireProtocol.OUTCOME_DEALER_BUST:
+            case WireProtocol.OUTCOME_WIN: return bet * 2;
+            case WireProtocol.OUTCOME_BLACKJACK: return (int)(bet * 2.5); // 블랙잭 승리 (2.5배 지급)
+            case WireProtocol.OUTCOME_PUSH: return bet;
+            default: return 0;
+        }
+    }
+
+    public static byte status(byte outcome) {
+        switch (outcome) {
+            case WireProtocol.OUTCOME_DEALER_BUST:
+            case WireProtocol.OUTCOME_BLACKJACK:
+            case WireProtocol.OUTCOME_WIN: return WireProtocol.STATUS_WIN;
+            case WireProtocol.OUTCOME_PUSH: return WireProtocol.STATUS_TIE;
+            default: return WireProtocol.STATUS_LOSE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Decides a player's next action for the offline simulator (and bots).
+ * Returns one of the WireProtocol.ACTION_* codes; the caller applies the same rules as GameRoom.
+ */
+public interface PlayerStrategy {
+    byte decide(Hand hand, Card dealerUpCard);
+
+    /**
+     * What to do when decide() says double but the balance can't cover it: the same total on
+     * three cards decides between hit and stand (a chart's "D" hits, "d" stands).
+     */
+    default byte decideWithoutDouble(Hand hand, Card dealerUpCard) {
+        Hand three = DecisionTable.withThirdCard(hand);
+        return three != null && decide(three, dealerUpCard) == WireProtocol.ACTION_STAND
+                ? WireProtocol.ACTION_STAND : WireProtocol.ACTION_HIT;
+    }
+
+    /** basic | mimic-dealer | never-bust */
+    static PlayerStrategy byName(String name) {
+        switch (name) {
+            case "basic": return BASIC;
+            case "mimic-dealer": return MIMIC_DEALER;
+            case "never-bust": return NEVER_BUST;
+            default: throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    // Hits below 17 and stands on 17+, exactly like the dealer
+    PlayerStrategy MIMIC_DEALER = (hand, up) ->
+            hand.getScore() < 17 ? WireProtocol.ACTION_HIT : WireProtocol.ACTION_STAND;
+
+    // Only hits when no card can bust the hand
+    PlayerStrategy NEVER_BUST = (hand, up) ->
+            hand.getHardTotal() <= 11 ? WireProtocol.ACTION_HIT : WireProtocol.ACTION_STAND;
+
+    // Standard basic strategy for stand-on-soft-17 (double and surrender on the first two cards only)
+    PlayerStrategy BASIC = (hand, up) -> {
+        int d = up.isAce() ? 11 : up.getValue();
+        int score = hand.getScore();
+        boolean firstTwo = hand.size() == 2;
+
+        if (hand.isSoft()) {
+            if (score >= 19) return WireProtocol.ACTION_STAND;
+            if (score == 18) {
+                if (firstTwo && d >= 3 && d <= 6) return WireProtocol.ACTION_DOUBLE_DOWN;
+                return d >= 9 ? WireProtocol.ACTION_HIT : WireProtocol.ACTION_STAND;
+            }
+            int lowestDouble = score == 17 ? 3 : score >= 15 ? 4 : 5; // soft 17 / 15-16 / 13-14
+            if (firstTwo && d >= lowestDouble && d <= 6) return WireProtocol.ACTION_DOUBLE_DOWN;
+            return WireProtocol.ACTION_HIT;
+        }
+
+        if (firstTwo && ((score == 16 && d >= 9) || (score == 15 && d == 10))) return WireProtocol.ACTION_SURRENDER;
+        if (score >= 17) return WireProtocol.ACTION_STAND;
+        if (score >= 13) return d <= 6 ? WireProtocol.ACTION_STAND : WireProtocol.ACTION_HIT;
+        if (score == 12) return d >= 4 && d <= 6 ? WireProtocol.ACTION_STAND : WireProtocol.ACTION_HIT;
+        if (firstTwo && score == 11 && d <= 10) return WireProtocol.ACTION_DOUBLE_DOWN;
+        if (firstTwo && score == 10 && d <= 9) return WireProtocol.ACTION_DOUBLE_DOWN;
+        if (firstTwo && score == 9 && d >= 3 && d <= 6) return WireProtocol.ACTION_DOUBLE_DOWN;
+        return WireProtocol.ACTION_HIT;
+    };
+}
@@ -0,0 +1,429 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules of one table (betting, turn order, dealer draw, settlement) with no I/O.
+ * Commands update the state and append RoundEvents; the caller drains them and decides how to
+ * deliver them. Not thread-safe: GameRoom only calls it from the table's worker.
+ *
+ * Only players with a bet take part in a round. Betting closes once everyone present has bet;
+ * players who are away (connection down, seat held) sit the round out, and if their hand is
+ * already in play they stand when their turn comes. One who drops during their own turn keeps it
+ * until the turn deadline, so a quick RESUME can still make the decision.
+ *
+ * Deadlines are the caller's job (GameRoom arms them on a TimerWheel): when one passes it calls
+ * turnTimedOut / bettingTimedOut with the sequence number it was armed for.
+ *
+ * With a HandHistory recorder every round is logged: the shoe and seats when betting opens, each
+ * command that reaches the engine (before it runs), and every event. Given the same shoe and
+ * commands the engine produces the same events, which is what HandReplay checks.
+ */
+public final class RoundEngine {
+    private static final TablePlayer[] NO_PLAYERS = new TablePlayer[0];
+
+    private final List<TablePlayer> players = new ArrayList<>();
+    private TablePlayer[] seated = NO_PLAYERS; // copy of players, stable while events are published
+    private int currentPlayerIndex = 0;
+    private boolean isGameStarted = false;
+    private boolean isBettingPhase = false;
+    private boolean isDealerTurn = false;
+
+    // Dealer Information
+    private final Shoe shoe;
+    private final Hand dealerHand = new Hand();
+    private int dealerState = BlackjackScoreCalculator.DEALER_START; // dealer policy automaton state
+
+    private boolean dealerTurnDue = false; // set when the players' turns end, cleared by pollDealerTurn()
+
+    // Bumped every time a player is asked to act / betting opens, so a deadline armed for one
+    // decision can tell it is stale
+    private long decisionSeq = 0;
+    private long bettingSeq = 0;
+
+    private List<RoundEvent> events = new ArrayList<>();
+    private HandHistory.Recorder recorder; // null = not recorded
+
+    public RoundEngine(Shoe shoe) {
+        this.shoe = shoe;
+    }
+
+    /** Records from the next round on; null stops recording. */
+    public void setRecorder(HandHistory.Recorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /** Events since the last drain, in order. */
+    public List<RoundEvent> drainEvents() {
+        List<RoundEvent> drained = events;
+        events = new ArrayList<>();
+        return drained;
+    }
+
+    /** Players at the table after the last command (a fresh array on every join/leave). */
+    public TablePlayer[] getSeated() { return seated; }
+    public boolean isDealerTurn() { return isDealerTurn; }
+    public boolean isGameStarted() { return isGameStarted; }
+    public boolean isBettingPhase() { return isBettingPhase; }
+    public Hand getDealerHand() { return dealerHand; }
+
+    /** Whose turn it is, or null outside the players' turns. */
+    public TablePlayer getCurrentPlayer() {
+        return isGameStarted && !isDealerTurn && currentPlayerIndex < players.size() ? players.get(currentPlayerIndex) : null;
+    }
+
+    /** True if the player has a bet riding on the current round. */
+    public boolean isInRound(TablePlayer player) {
+        return players.contains(player) && player.isBetPlaced() && (isBettingPhase || isGameStarted);
+    }
+
+    /** Changes every time a player is asked for a decision (new turn, or their turn again after a hit). */
+    public long getDecisionSeq() { return decisionSeq; }
+    /** Changes every time betting opens. */
+    public long getBettingSeq() { return bettingSeq; }
+
+    /** True once after the players' turns end; the caller then runs dealerStep() until it returns false. */
+    public boolean pollDealerTurn() {
+        boolean due = dealerTurnDue;
+        dealerTurnDue = false;
+        return due;
+    }
+
+    public void join(TablePlayer player) {
+        if (recorder != null) recorder.account(HandHistory.OP_JOIN, player);
+        players.add(player);
+        seated = players.toArray(NO_PLAYERS);
+        emit(RoundEvent.JOINED, player, players.size(), 0);
+        if (isBettingPhase) {
+            // Betting waits for everyone present, so a late arrival is asked too
+            player.resetRound();
+            emit(RoundEvent.BET_PROMPT, player, player.getBalance(), 0);
+        }
+    }
+
+    /**
+     * Removes the player. Mid-round the others carry on: a bet placed before the deal is refunded,
+     * a dealt hand is forfeited (settled at 0), and the turn moves on if it was theirs.
+     */
+    public void leave(TablePlayer player) {
+        int index = players.indexOf(player);
+        if (index < 0) return;
+        log(HandHistory.OP_LEAVE, player, 0);
+        if (isBettingPhase && player.isBetPlaced()) {
+            player.increaseBalance(player.getCurrentBet());
+        } else if (isGameStarted && player.isBetPlaced()) {
+            player.increaseBalance(0);
+        }
+        players.remove(index);
+        seated = players.toArray(NO_PLAYERS);
+        emit(RoundEvent.LEFT, player, 0, 0);
+
+        if (players.isEmpty()) {
+            if (recorder != null && (isBettingPhase || (isGameStarted && !isDealerTurn))) {
+                recorder.end(HandHistory.ABANDONED);
+            }
+            isBettingPhase = false;
+            if (!isDealerTurn) isGameStarted = false; // a dealer turn already under way settles normally
+        } else if (isBettingPhase) {
+            startRoundIfAllBet();
+        } else if (isGameStarted && !isDealerTurn) {
+            if (index < currentPlayerIndex) {
+                currentPlayerIndex--;
+            } else if (index == currentPlayerIndex) {
+                beginTurn(); // the next player slid into this index
+            }
+        }
+    }
+
+    /** Puts `next` in `previous`'s seat with everything the round knows about it. */
+    public void replace(TablePlayer previous, TablePlayer next) {
+        int index = players.indexOf(previous);
+        if (index < 0) return;
+        if (recorder != null) recorder.replaced(previous, next);
+        players.set(index, next);
+        seated = players.toArray(NO_PLAYERS);
+    }
+
+    /**
+     * The player just went away: betting no longer waits for them. If it is their turn it stays
+     * theirs; the turn deadline (or the seat being given up) moves the round on.
+     */
+    public void playerAway(TablePlayer player) {
+        log(HandHistory.OP_AWAY, player, 0);
+        player.setAway(true);
+        if (isBettingPhase) {
+            startRoundIfAllBet();
+        }
+    }
+
+    public void start() {
+        if (players.size() < 1) return;
+        if (isBettingPhase || isGameStarted) return;
+        if (recorder != null) recorder.begin(players, shoe);
+
+        isBettingPhase = true;
+        isGameStarted = false;
+        bettingSeq++;
+
+        emit(RoundEvent.SECTION, null, 0, 0);
+        emit(RoundEvent.BETTING_OPEN, null, 0, 0);
+        for (TablePlayer p : players) {
+            p.resetRound();
+            emit(RoundEvent.BET_PROMPT, p, p.getBalance(), 0);
+        }
+        emit(RoundEvent.SECTION, null, 0, 0);
+    }
+
+    public boolean placeBet(TablePlayer player, int amount) {
+        log(HandHistory.OP_BET, player, amount);
+        if (!isBettingPhase) {
+            emit(RoundEvent.ERROR, player, RoundEvent.ERROR_NOT_BETTING_TIME, 0);
+            return false;
+        }
+        if (player.isBetPlaced()) {
+            emit(RoundEvent.ERROR, player, RoundEvent.ERROR_ALREADY_BET, 0);
+            return false;
+        }
+        if (player.getBalance() < amount) {
+            emit(RoundEvent.ERROR, player, RoundEvent.ERROR_INSUFFICIENT_BALANCE, 0);
+            return false;
+        }
+        player.decreaseBalance(amount);
+        player.setCurrentBet(amount);
+        player.setBetPlaced(true);
+        emit(RoundEvent.BET_PLACED, player, amount, 0);
+        startRoundIfAllBet();
+        return true;
+    }
+
+    private void startRoundIfAllBet() {
+        boolean anyBet = false;
+        for (TablePlayer p : players) {
+            if (p.isBetPlaced()) anyBet = true;
+            else if (!p.isAway()) return;
+        }
+        if (anyBet) startRound();
+    }
+
+    private void startRound() {
+        isBettingPhase = false;
+        isGameStarted = true;
+        currentPlayerIndex = 0;
+        dealerHand.clear();
+
+        emit(RoundEvent.SECTION, null, 0, 0);
+        emit(RoundEvent.ROUND_START, null, 0, 0);
+        if (shoe.shuffleIfNeeded()) {
+            emit(RoundEvent.SHUFFLED, null, 0, 0);
+        }
+
+        // 딜러 카드 1장 뽑기
+        Card dealerCard = shoe.drawCard();
+        dealerHand.add(dealerCard);
+        dealerState = BlackjackScoreCalculator.dealerNext(BlackjackScoreCalculator.DEALER_START, dealerCard.getCode());
+        emit(RoundEvent.DEALER_OPEN, null, dealerCard.getCode(), dealerHand.getScore());
+
+        // 각 플레이어에게 카드 2장씩 나눠주기
+        for (TablePlayer p : players) {
+            Hand hand = p.getHand();
+            hand.clear();
+            if (!p.isBetPlaced()) continue; // sitting out
+            Card c1 = shoe.drawCard();
+            Card c2 = shoe.drawCard();
+            hand.add(c1);
+            hand.add(c2);
+            add(new RoundEvent(RoundEvent.INITIAL_DEAL, p, p.getPlayerId(),
+                    dealerCard.getCode(), c1.getCode(), c2.getCode(), hand.getScore(), 0));
+
+            if (hand.isBlackjack()) {
+                emit(RoundEvent.HINT, p, RoundEvent.HINT_BLACKJACK, 0);
+            } else if (hand.isSoft()) {
+                emit(RoundEvent.HINT, p, RoundEvent.HINT_SOFT_HAND, 0);
+            }
+        }
+
+        emit(RoundEvent.SECTION, null, 0, 0);
+        beginTurn();
+    }
+
+    /** One player action (WireProtocol.ACTION_*). Returns true if it ended the players' turns. */
+    public boolean action(TablePlayer player, byte action) {
+        log(HandHistory.OP_ACTION, player, action);
+        if (!isGameStarted) {
+            emit(RoundEvent.ERROR, player, RoundEvent.ERROR_NOT_IN_PROGRESS, 0);
+            return false;
+        }
+        if (isDealerTurn) {
+            emit(RoundEvent.ERROR, player, RoundEvent.ERROR_DEALER_TURN, 0);
+            return false;
+        }
+        TablePlayer current = players.get(currentPlayerIndex);
+        if (!player.equals(current)) {
+            add(new RoundEvent(RoundEvent.ERROR, player, current.getPlayerId(), RoundEvent.ERROR_NOT_YOUR_TURN, 0, 0, 0, 0));
+            return false;
+        }
+
+        Hand hand = player.getHand();
+        switch (action) {
+            case WireProtocol.ACTION_HIT: {
+                Card card = shoe.drawCard();
+                hand.add(card);
+                emit(RoundEvent.HIT, player, card.getCode(), hand.getScore());
+                if (hand.isBust()) {
+                    emit(RoundEvent.BUST, player, 0, 0);
+                    return nextTurn();
+                }
+                // 21점을 안 넘었으면 다시 턴을 줌
+                if (hand.isSoft()) {
+                    emit(RoundEvent.HINT, player, RoundEvent.HINT_SOFT_HIT, 0);
+                }
+                decisionSeq++;
+                emit(RoundEvent.YOUR_TURN, player, 0, 0);
+                return false;
+            }
+            case WireProtocol.ACTION_STAND:
+                emit(RoundEvent.STAND, player, 0, hand.getScore());
+                return nextTurn();
+            case WireProtocol.ACTION_DOUBLE_DOWN: {
+                int additionalBet = player.getCurrentBet();
+                if (player.getBalance() < additionalBet) {
+                    emit(RoundEvent.ERROR, player, RoundEvent.ERROR_INSUFFICIENT_FOR_DOUBLE, 0);
+                    return false;
+                }
+                player.decreaseBalance(additionalBet);
+                player.setCurrentBet(player.getCurrentBet() + additionalBet);
+                Card card = shoe.drawCard();
+                hand.add(card);
+                add(new RoundEvent(RoundEvent.DOUBLE_DOWN, player, player.getPlayerId(),
+                        card.getCode(), hand.getScore(), additionalBet, 0, 0));
+                if (hand.isBust()) {
+                    emit(RoundEvent.BUST, player, 1, 0);
+                }
+                return nextTurn();
+            }
+            case WireProtocol.ACTION_SURRENDER:
+                player.setSurrender(true);
+                emit(RoundEvent.SURRENDER, player, 0, 0);
+                return nextTurn();
+            default:
+                return false;
+        }
+    }
+
+    private boolean nextTurn() {
+        currentPlayerIndex++;
+        return beginTurn();
+    }
+
+    // Hands the turn to the next player at or after currentPlayerIndex with a hand in play, or to the
+    // dealer. Players sitting out are skipped; players who are away stand.
+    private boolean beginTurn() {
+        while (currentPlayerIndex < players.size()) {
+            TablePlayer p = players.get(currentPlayerIndex);
+            if (p.isBetPlaced() && !p.isAway()) break;
+            if (p.isBetPlaced()) emit(RoundEvent.STAND, p, 0, p.getHand().getScore());
+            currentPlayerIndex++;
+        }
+        if (currentPlayerIndex >= players.size()) {
+            isDealerTurn = true;
+            dealerTurnDue = true;
+            emit(RoundEvent.DEALER_TURN, null, 0, dealerHand.getScore());
+            return true;
+        }
+        decisionSeq++;
+        emit(RoundEvent.TURN, players.get(currentPlayerIndex), 0, 0);
+        return false;
+    }
+
+    /**
+     * The decision `seq` was not made in time: the player stands. Returns false if the deadline is
+     * stale (the player acted, left or the round moved on since it was armed).
+     */
+    public boolean turnTimedOut(long seq) {
+        TablePlayer player = getCurrentPlayer();
+        if (player == null || seq != decisionSeq) return false;
+        log(HandHistory.OP_TURN_TIMEOUT, player, 0);
+        emit(RoundEvent.TURN_TIMEOUT, player, 0, 0);
+        emit(RoundEvent.STAND, player, 0, player.getHand().getScore());
+        nextTurn();
+        return true;
+    }
+
+    /**
+     * Betting `seq` ran out of time: whoever has not bet sits this round out. With no bets at all
+     * the table goes back to idle until the next START. Returns false if the deadline is stale.
+     */
+    public boolean bettingTimedOut(long seq) {
+        if (!isBettingPhase || seq != bettingSeq) return false;
+        log(HandHistory.OP_BET_TIMEOUT, null, 0);
+        int sittingOut = 0;
+        for (TablePlayer p : players) {
+            if (p.isBetPlaced()) continue;
+            sittingOut++;
+            emit(RoundEvent.SAT_OUT, p, 0, 0);
+        }
+        if (sittingOut == players.size()) {
+            isBettingPhase = false;
+            emit(RoundEvent.BETTING_CLOSED, null, sittingOut, 1);
+            if (recorder != null) recorder.end(HandHistory.NO_BETS);
+        } else {
+            emit(RoundEvent.BETTING_CLOSED, null, sittingOut, 0);
+            startRound();
+        }
+        return true;
+    }
+
+    /** One dealer reveal: draws a card and returns true, or settles the round and returns false. */
+    public boolean dealerStep() {
+        log(HandHistory.OP_DEALER_STEP, null, 0);
+        // 딜러는 17 이상이 될 때까지 카드를 받음 (Soft 17 포함) - policy table lookup, no rescoring
+        if (!BlackjackScoreCalculator.dealerStands(dealerState)) {
+            Card card = shoe.drawCard();
+            dealerHand.add(card);
+            dealerState = BlackjackScoreCalculator.dealerNext(dealerState, card.getCode());
+            emit(RoundEvent.DEALER_DRAW, null, card.getCode(), BlackjackScoreCalculator.dealerScore(dealerState));
+            return true;
+        }
+        settle();
+        return false;
+    }
+
+    private void settle() {
+        int dealerFinalScore = dealerHand.getScore();
+        emit(RoundEvent.DEALER_FINAL, null, 0, dealerFinalScore);
+
+        for (TablePlayer p : players) {
+            if (!p.isBetPlaced()) continue;
+            Hand hand = p.getHand();
+            byte outcome = PayoutRules.outcome(hand, p.isSurrender(), dealerFinalScore);
+            int amount = PayoutRules.payout(outcome, p.getCurrentBet()); // refund or prize credited to the player
+            p.increaseBalance(amount);
+            add(new RoundEvent(RoundEvent.SETTLED, p, p.getPlayerId(),
+                    outcome, amount, hand.getScore(), dealerFinalScore, p.getBalance()));
+            p.setBetPlaced(false); // paid: nothing rides on this round any more (bet and cards stay until the next start)
+        }
+
+        isGameStarted = false;
+        isBettingPhase = false;
+        isDealerTurn = false;
+        emit(RoundEvent.ROUND_END, null, 0, 0);
+        if (recorder != null) recorder.end(HandHistory.COMPLETE);
+    }
+
+    /** The player logged in: new ID and balance. Recorded so a replay sees the same balance. */
+    public void accountChanged(TablePlayer player) {
+        if (recorder != null && players.contains(player)) recorder.account(HandHistory.OP_ACCOUNT, player);
+    }
+
+    private void emit(byte type, TablePlayer player, int a, int b) {
+        add(new RoundEvent(type, player, player != null ? player.getPlayerId() : null, a, b, 0, 0, 0));
+    }
+
+    private void add(RoundEvent e) {
+        events.add(e);
+        if (recorder != null) recorder.event(e);
+    }
+
+    private void log(byte op, TablePlayer player, int arg) {
+        if (recorder != null) recorder.op(op, player, arg);
+    }
+}
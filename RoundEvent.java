@@ -0,0 +1,65 @@
+/**
+ * One thing that happened at a table, as emitted by RoundEngine.
+ * Events carry only ids, codes and numbers captured at the time they happened; GameRoom turns
+ * them into ServerMessages once the command that caused them has finished.
+ *
+ * `player` is the subject of the event, or its only recipient for the unicast types
+ * (BET_PROMPT, INITIAL_DEAL, HINT, YOUR_TURN, ERROR, SAT_OUT). Field use per type is noted below.
+ */
+public final class RoundEvent {
+    public static final byte JOINED = 1;        // a = players at the table
+    public static final byte LEFT = 2;
+    public static final byte SECTION = 3;       // section break between phases
+    public static final byte BETTING_OPEN = 4;
+    public static final byte BET_PROMPT = 5;    // a = balance
+    public static final byte BET_PLACED = 6;    // a = amount
+    public static final byte ROUND_START = 7;
+    public static final byte SHUFFLED = 8;
+    public static final byte DEALER_OPEN = 9;   // a = card, b = score
+    public static final byte INITIAL_DEAL = 10; // a = dealer card, b = card, c = card, d = total
+    public static final byte HINT = 11;         // a = HINT_*
+    public static final byte TURN = 12;         // whose turn it is (the player also gets YOUR_TURN)
+    public static final byte YOUR_TURN = 13;
+    public static final byte HIT = 14;          // a = card, b = score
+    public static final byte STAND = 15;        // b = score
+    public static final byte DOUBLE_DOWN = 16;  // a = card, b = score, c = additional bet
+    public static final byte SURRENDER = 17;
+    public static final byte BUST = 18;         // a = 1 after a double down
+    public static final byte DEALER_TURN = 19;  // b = score
+    public static final byte DEALER_DRAW = 20;  // a = card, b = score
+    public static final byte DEALER_FINAL = 21; // b = score
+    public static final byte SETTLED = 22;      // a = outcome, b = amount, c = player score, d = dealer score, e = balance
+    public static final byte ROUND_END = 23;
+    public static final byte ERROR = 24;        // a = ERROR_*, id = current turn for ERROR_NOT_YOUR_TURN
+    public static final byte TURN_TIMEOUT = 25; // the player ran out of time (a STAND follows)
+    public static final byte BETTING_CLOSED = 26; // betting deadline passed: a = players sitting out, b = 1 if nobody bet
+    public static final byte SAT_OUT = 27;      // the player placed no bet in time
+
+    public static final int HINT_BLACKJACK = 0;
+    public static final int HINT_SOFT_HAND = 1;
+    public static final int HINT_SOFT_HIT = 2;
+
+    public static final int ERROR_NOT_BETTING_TIME = 0;
+    public static final int ERROR_ALREADY_BET = 1;
+    public static final int ERROR_INSUFFICIENT_BALANCE = 2;
+    public static final int ERROR_NOT_IN_PROGRESS = 3;
+    public static final int ERROR_DEALER_TURN = 4;
+    public static final int ERROR_NOT_YOUR_TURN = 5;
+    public static final int ERROR_INSUFFICIENT_FOR_DOUBLE = 6;
+
+    public final byte type;
+    public final TablePlayer player;
+    public final String id;
+    public final int a, b, c, d, e;
+
+    RoundEvent(byte type, TablePlayer player, String id, int a, int b, int c, int d, int e) {
+        this.type = type;
+        this.player = player;
+        this.id = id;
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.e = e;
+    }
+}
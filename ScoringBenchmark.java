@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Dealer play and hand scoring: list rescans vs incremental Hand vs the lookup tables.
+ *
+ * Usage: java ScoringBenchmark [hands]   (default: 10000000)
+ *
+ * All variants read the same pre-shuffled card stream, so the numbers compare scoring only.
+ * Each variant runs a few warmup passes first; the checksum column must match across rows.
+ */
+public class ScoringBenchmark {
+    private static final int WARMUP = 3;
+    private static final int MEASURED = 5;
+
+    public static void main(String[] args) {
+        int hands = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        // 8-deck shoe, dealt end to end and reshuffled, long enough for `hands` dealer hands
+        Shoe shoe = new Shoe(8, 1.0, new SplittableRandom(42));
+        byte[] stream = new byte[1 << 22];
+        for (int i = 0; i < stream.length; i++) stream[i] = shoe.draw();
+
+        System.out.println("variant              ns/hand   hands/s      checksum");
+        report("dealer list rescan", hands, () -> dealerList(stream, hands));
+        report("dealer Hand", hands, () -> dealerHand(stream, hands));
+        report("dealer table", hands, () -> dealerTable(stream, hands));
+        report("score list rescan", hands, () -> scoreList(stream, hands));
+        report("score Hand/table", hands, () -> scoreHand(stream, hands));
+    }
+
+    interface Run { long run(); }
+
+    private static void report(String name, int hands, Run run) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP; i++) checksum = run.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            checksum = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-18s %9.2f %9.0f  %12d%n", name, (double) best / hands, hands * 1e9 / best, checksum);
+    }
+
+    // The original loop: while (calculateScore(cards) < 17) draw
+    private static long dealerList(byte[] stream, int hands) {
+        List<Card> cards = new ArrayList<>();
+        long sum = 0;
+        int pos = 0;
+        for (int h = 0; h < hands; h++) {
+            cards.clear();
+            cards.add(Card.of(stream[pos++ & (stream.length - 1)]));
+            while (BlackjackScoreCalculator.calculateScore(cards) < 17) {
+                cards.add(Card.of(stream[pos++ & (stream.length - 1)]));
+            }
+            sum += BlackjackScoreCalculator.calculateScore(cards);
+        }
+        return sum;
+    }
+
+    private static long dealerHand(byte[] stream, int hands) {
+        Hand hand = new Hand();
+        long sum = 0;
+        int pos = 0;
+        for (int h = 0; h < hands; h++) {
+            hand.clear();
+            hand.add(Card.of(stream[pos++ & (stream.length - 1)]));
+            while (hand.getScore() < 17) {
+                hand.add(Card.of(stream[pos++ & (stream.length - 1)]));
+            }
+            sum += hand.getScore();
+        }
+        return sum;
+    }
+
+    private static long dealerTable(byte[] stream, int hands) {
+        long sum = 0;
+        int pos = 0;
+        for (int h = 0; h < hands; h++) {
+            int state = BlackjackScoreCalculator.dealerNext(BlackjackScoreCalculator.DEALER_START, stream[pos++ & (stream.length - 1)]);
+            while (!BlackjackScoreCalculator.dealerStands(state)) {
+                state = BlackjackScoreCalculator.dealerNext(state, stream[pos++ & (stream.length - 1)]);
+            }
+            sum += BlackjackScoreCalculator.dealerScore(state);
+        }
+        return sum;
+    }
+
+    // Player-side checks after every card: score, soft, bust, blackjack (2-4 card hands)
+    private static long scoreList(byte[] stream, int hands) {
+        List<Card> cards = new ArrayList<>();
+        long sum = 0;
+        int pos = 0;
+        for (int h = 0; h < hands; h++) {
+            cards.clear();
+            int n = 2 + (h & 1) + ((h >> 1) & 1);
+            for (int i = 0; i < n; i++) {
+                cards.add(Card.of(stream[pos++ & (stream.length - 1)]));
+                sum += BlackjackScoreCalculator.calculateScore(cards);
+                if (BlackjackScoreCalculator.isSoftHand(cards)) sum += 1;
+                if (BlackjackScoreCalculator.isBust(cards)) sum += 2;
+                if (BlackjackScoreCalculator.isBlackjack(cards)) sum += 4;
+            }
+        }
+        return sum;
+    }
+
+    private static long scoreHand(byte[] stream, int hands) {
+        Hand hand = new Hand();
+        long sum = 0;
+        int pos = 0;
+        for (int h = 0; h < hands; h++) {
+            hand.clear();
+            int n = 2 + (h & 1) + ((h >> 1) & 1);
+            for (int i = 0; i < n; i++) {
+                hand.add(Card.of(stream[pos++ & (stream.length - 1)]));
+                sum += hand.getScore();
+                if (hand.isSoft()) sum += 1;
+                if (hand.isBust()) sum += 2;
+                if (hand.isBlackjack()) sum += 4;
+            }
+        }
+        return sum;
+    }
+}
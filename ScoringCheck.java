@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the incremental, table-driven Hand against the list-based reference in
+ * BlackjackScoreCalculator: score, soft, bust and blackjack after every card.
+ *
+ * Usage: java ScoringCheck [--depth=N] [--random=N] [--seed=S]
+ *
+ * Every rank sequence up to --depth cards (default 6) is built card by card, then --random hands
+ * (default 1000000) are dealt from a shuffled 8-deck shoe and kept drawing well past a bust, so
+ * the overflow path in Hand.add is covered too. One reused Hand is cleared between hands, as at
+ * the table. Prints the first divergences and exits with status 1 if there were any.
+ */
+public class ScoringCheck {
+    private static final int RANKS = Card.Rank.values().length;
+    private static final int MAX_REPORTED = 10;
+
+    private final Hand hand = new Hand();
+    private final List<Card> cards = new ArrayList<>();
+    private long checked;
+    private long divergences;
+
+    public static void main(String[] args) {
+        int depth = 6;
+        int random = 1_000_000;
+        long seed = 42;
+        for (String arg : args) {
+            if (arg.startsWith("--depth=")) {
+                depth = Integer.parseInt(arg.substring("--depth=".length()));
+            } else if (arg.startsWith("--random=")) {
+                random = Integer.parseInt(arg.substring("--random=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+            }
+        }
+
+        ScoringCheck check = new ScoringCheck();
+        check.exhaustive(depth);
+        long exhaustive = check.checked;
+        check.random(random, seed);
+        System.out.printf("%d hands checked (%d exhaustive up to %d cards, %d random), %d divergences%n",
+                check.checked, exhaustive, depth, check.checked - exhaustive, check.divergences);
+        System.exit(check.divergences == 0 ? 0 : 1);
+    }
+
+    // Every sequence of ranks up to `depth` cards; each prefix is compared as it is built
+    private void exhaustive(int depth) {
+        int[] ranks = new int[depth];
+        for (int length = 1; length <= depth; length++) {
+            Arrays.fill(ranks, 0);
+            while (true) {
+                hand.clear();
+                cards.clear();
+                for (int i = 0; i < length; i++) add(Card.of(ranks[i]));
+                checked++;
+                int i = length - 1; // next sequence, like an odometer
+                while (i >= 0 && ++ranks[i] == RANKS) ranks[i--] = 0;
+                if (i < 0) break;
+            }
+        }
+    }
+
+    private void random(int hands, long seed) {
+        Shoe shoe = new Shoe(8, 0.75, new SplittableRandom(seed));
+        SplittableRandom lengths = new SplittableRandom(seed + 1);
+        for (int h = 0; h < hands; h++) {
+            hand.clear();
+            cards.clear();
+            int length = 2 + lengths.nextInt(19); // up to 20 cards, far past any bust
+            for (int i = 0; i < length; i++) add(Card.of(shoe.draw()));
+            checked++;
+        }
+    }
+
+    private void add(Card card) {
+        hand.add(card);
+        cards.add(card);
+        if (BlackjackScoreCalculator.matches(hand, cards)) return;
+        if (++divergences <= MAX_REPORTED) {
+            System.out.printf("DIVERGED %s: Hand score=%d soft=%b bust=%b blackjack=%b, reference score=%d soft=%b bust=%b blackjack=%b%n",
+                    cards, hand.getScore(), hand.isSoft(), hand.isBust(), hand.isBlackjack(),
+                    BlackjackScoreCalculator.calculateScore(cards), BlackjackScoreCalculator.isSoftHand(cards),
+                    BlackjackScoreCalculator.isBust(cards), BlackjackScoreCalculator.isBlackjack(cards));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free seat availability for every open table, used by TableManager for quick seats,
+ * joins and the lobby list.
+ *
+ * Each table holds a slot. The slot's seat count is the truth: a seat is taken with one CAS on it
+ * (-1 marks a closed slot, so a table being closed can't be joined). Next to the counts, one
+ * bitmap per stakes level and seat count says which tables have exactly that many seats taken;
+ * a quick seat scans the fullest bucket first, 64 tables per word, and tries a CAS on what it
+ * finds. The bitmaps are only hints: after every change the changer rewrites the slot's bits from
+ * the count and checks the count didn't move meanwhile, so they settle on the truth without any
+ * lock and a stale bit costs one failed CAS.
+ */
+public final class SeatIndex {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int CLOSED = -1;
+
+    private final int seatsPerTable;
+    private final int capacity;
+    private final AtomicReferenceArray<GameRoom> rooms;
+    private final AtomicIntegerArray taken;   // seats taken by slot; CLOSED when free
+    private final int[] levels;               // written before the slot's count is published
+    private final long[] used;                // slots holding a table
+    private final long[][][] bySeats;         // [level][seats taken] -> slots not yet full
+    private final AtomicInteger words = new AtomicInteger(); // bitmap words that have ever held a table
+
+    public SeatIndex(int levels, int seatsPerTable, int capacity) {
+        this.seatsPerTable = seatsPerTable;
+        this.capacity = capacity;
+        this.rooms = new AtomicReferenceArray<>(capacity);
+        this.taken = new AtomicIntegerArray(capacity);
+        this.levels = new int[capacity];
+        int n = (capacity + 63) >>> 6;
+        this.used = new long[n];
+        this.bySeats = new long[levels][seatsPerTable][n];
+        for (int i = 0; i < capacity; i++) taken.set(i, CLOSED);
+    }
+
+    public int capacity() { return capacity; }
+
+    /** Adds an open table with `seats` already taken; returns its slot, or -1 when every slot is in use. */
+    public int add(GameRoom room, int level, int seats) {
+        for (int w = 0; w < used.length; w++) {
+            long v = (long) WORDS.getVolatile(used, w);
+            while (v != -1L) {
+                int bit = Long.numberOfTrailingZeros(~v);
+                int slot = (w << 6) + bit;
+                if (slot >= capacity) break;
+                if (WORDS.compareAndSet(used, w, v, v | 1L << bit)) {
+                    room.setSlot(slot); // before the room can be reached through the index
+                    rooms.set(slot, room);
+                    levels[slot] = level;
+                    taken.set(slot, seats);
+                    words.accumulateAndGet(w + 1, Math::max);
+                    repair(slot);
+                    return slot;
+                }
+                v = (long) WORDS.getVolatile(used, w);
+            }
+        }
+        return -1;
+    }
+
+    /** Takes a seat at the fullest table at `level` that has one; returns its slot, or -1 if all are full. */
+    public int quickSeat(int level) {
+        int n = words.get();
+        if (n == 0) return -1;
+        int start = ThreadLocalRandom.current().nextInt(n); // concurrent joins spread over equally good tables
+        for (int seats = seatsPerTable - 1; seats >= 0; seats--) {
+            long[] bucket = bySeats[level][seats];
+            for (int i = 0; i < n; i++) {
+                int w = (start + i) % n;
+                long v = (long) WORDS.getVolatile(bucket, w);
+                while (v != 0) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(v);
+                    if (tryReserve(slot)) {
+                        if (levels[slot] == level) return slot;
+                        // The slot was closed and reopened at other stakes under us: drop the stale
+                        // bit, then give the seat back (which sets the right bits again)
+                        WORDS.getAndBitwiseAnd(bucket, w, ~(1L << slot));
+                        release(slot);
+                    }
+                    v &= v - 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Takes a seat at this table if it is open and not full. */
+    public boolean reserve(int slot, GameRoom room) {
+        if (slot < 0 || !tryReserve(slot)) return false;
+        if (rooms.get(slot) == room) return true;
+        release(slot);
+        return false;
+    }
+
+    private boolean tryReserve(int slot) {
+        int seats = taken.get(slot);
+        while (seats != CLOSED && seats < seatsPerTable) {
+            if (taken.compareAndSet(slot, seats, seats + 1)) {
+                repair(slot);
+                return true;
+            }
+            seats = taken.get(slot);
+        }
+        return false;
+    }
+
+    /** Gives a seat back; returns the seats still taken. */
+    public int release(int slot) {
+        int left = taken.decrementAndGet(slot);
+        repair(slot);
+        return left;
+    }
+
+    /** Closes the slot if its table is empty; the slot can then go to a new table. */
+    public boolean retire(int slot) {
+        if (!taken.compareAndSet(slot, 0, CLOSED)) return false;
+        repair(slot);
+        rooms.set(slot, null);
+        int w = slot >>> 6;
+        long bit = 1L << slot;
+        long v;
+        do {
+            v = (long) WORDS.getVolatile(used, w);
+        } while (!WORDS.compareAndSet(used, w, v, v & ~bit));
+        return true;
+    }
+
+    public GameRoom room(int slot) {
+        return rooms.get(slot);
+    }
+
+    public int seatsTaken(int slot) {
+        return Math.max(0, taken.get(slot));
+    }
+
+    /** Fills `out` with up to out.length open tables, skipping the first `skip` in slot order; returns how many. */
+    public int list(int skip, GameRoom[] out) {
+        int n = 0;
+        int limit = words.get();
+        for (int w = 0; w < limit && n < out.length; w++) {
+            long v = (long) WORDS.getVolatile(used, w);
+            int count = Long.bitCount(v);
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            for (; v != 0 && n < out.length; v &= v - 1) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                GameRoom room = rooms.get((w << 6) + Long.numberOfTrailingZeros(v));
+                if (room != null) out[n++] = room; // null: closing right now
+            }
+        }
+        return n;
+    }
+
+    // Rewrites the slot's bucket bits from its count until the count holds still
+    private void repair(int slot) {
+        long[][] buckets = bySeats[levels[slot]];
+        int w = slot >>> 6;
+        long bit = 1L << slot;
+        while (true) {
+            int seats = taken.get(slot);
+            for (int k = 0; k < buckets.length; k++) {
+                long v = (long) WORDS.getVolatile(buckets[k], w);
+                if (k == seats) {
+                    if ((v & bit) == 0) WORDS.getAndBitwiseOr(buckets[k], w, bit);
+                } else if ((v & bit) != 0) {
+                    WORDS.getAndBitwiseAnd(buckets[k], w, ~bit);
+                }
+            }
+            if (taken.get(slot) == seats) return;
+        }
+    }
+}
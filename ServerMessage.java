@@ -0,0 +1,203 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One server -> client message, defined once as a WireProtocol frame body.
+ * The text form (human line plus its "EVT ..." record) and the binary frame are each encoded at
+ * most once and then shared by every recipient, whichever protocol they negotiated.
+ */
+public final class ServerMessage {
+    // Fixed messages shared by every table
+    public static final ServerMessage SEPARATOR = new ServerMessage(new byte[] {WireProtocol.SEPARATOR});
+    public static final ServerMessage GAME_PHASE = new ServerMessage(new byte[] {WireProtocol.GAME_PHASE});
+    public static final ServerMessage ROUND_START = new ServerMessage(new byte[] {WireProtocol.ROUND_START});
+    public static final ServerMessage YOUR_TURN = new ServerMessage(new byte[] {WireProtocol.YOUR_TURN});
+    public static final ServerMessage GAME_END = new ServerMessage(new byte[] {WireProtocol.GAME_END});
+
+    private final byte[] body; // opcode + payload
+    private volatile ByteBuffer textFrame;
+    private volatile ByteBuffer binaryFrame;
+
+    private ServerMessage(byte[] body) {
+        this.body = body;
+    }
+
+    public ByteBuffer textFrame() {
+        ByteBuffer frame = textFrame;
+        if (frame == null) {
+            ByteBuffer b = ByteBuffer.wrap(body);
+            String line = WireProtocol.describe(b);
+            String event = WireProtocol.event(b);
+            frame = Frames.line(event == null ? line : line + "\n" + event);
+            textFrame = frame;
+        }
+        return frame;
+    }
+
+    public ByteBuffer binaryFrame() {
+        ByteBuffer frame = binaryFrame;
+        if (frame == null) {
+            ByteBuffer buf = ByteBuffer.allocate(2 + body.length);
+            buf.putShort((short) body.length).put(body).flip();
+            frame = buf.asReadOnlyBuffer();
+            binaryFrame = frame;
+        }
+        return frame;
+    }
+
+    // ---- Factories ----
+
+    public static ServerMessage log(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer b = ByteBuffer.allocate(1 + utf8.length);
+        b.put(WireProtocol.LOG).put(utf8);
+        return new ServerMessage(b.array());
+    }
+
+    public static ServerMessage welcome(String id, int balance, int tableId) {
+        return new ServerMessage(withId(WireProtocol.WELCOME, id, 6).putInt(balance).putShort((short) tableId).array());
+    }
+
+    public static ServerMessage balance(byte kind, int balance) {
+        return new ServerMessage(ByteBuffer.allocate(6).put(WireProtocol.BALANCE_INFO).put(kind).putInt(balance).array());
+    }
+
+    public static ServerMessage betPlaced(String id, int amount) {
+        return new ServerMessage(withId(WireProtocol.BET_PLACED, id, 4).putInt(amount).array());
+    }
+
+    public static ServerMessage dealerOpen(Card card, int score) {
+        return new ServerMessage(new byte[] {WireProtocol.DEALER_OPEN, WireProtocol.cardCode(card), (byte) score});
+    }
+
+    public static ServerMessage initialDeal(Card dealer, Card c1, Card c2, int total) {
+        return new ServerMessage(new byte[] {WireProtocol.INITIAL_DEAL,
+                WireProtocol.cardCode(dealer), WireProtocol.cardCode(c1), WireProtocol.cardCode(c2), (byte) total});
+    }
+
+    public static ServerMessage turn(String id) {
+        return new ServerMessage(withId(WireProtocol.TURN, id, 0).array());
+    }
+
+    public static ServerMessage hit(String id, Card card, int score) {
+        return new ServerMessage(withId(WireProtocol.HIT, id, 2).put(WireProtocol.cardCode(card)).put((byte) score).array());
+    }
+
+    public static ServerMessage stand(String id, int score) {
+        return new ServerMessage(withId(WireProtocol.STAND, id, 1).put((byte) score).array());
+    }
+
+    public static ServerMessage doubleDown(String id, Card card, int score) {
+        return new ServerMessage(withId(WireProtocol.DOUBLE_DOWN, id, 2).put(WireProtocol.cardCode(card)).put((byte) score).array());
+    }
+
+    public static ServerMessage surrender(String id) {
+        return new ServerMessage(withId(WireProtocol.SURRENDER, id, 0).array());
+    }
+
+    public static ServerMessage bust(String id, boolean afterDoubleDown) {
+        return new ServerMessage(withId(WireProtocol.BUST, id, 1).put((byte) (afterDoubleDown ? 1 : 0)).array());
+    }
+
+    public static ServerMessage dealerTurn(int score) {
+        return new ServerMessage(new byte[] {WireProtocol.DEALER_TURN, (byte) score});
+    }
+
+    public static ServerMessage dealerDraw(Card card, int score) {
+        return new ServerMessage(new byte[] {WireProtocol.DEALER_DRAW, WireProtocol.cardCode(card), (byte) score});
+    }
+
+    public static ServerMessage dealerFinal(int score) {
+        return new ServerMessage(new byte[] {WireProtocol.DEALER_FINAL, (byte) score});
+    }
+
+    public static ServerMessage settlement(String id, byte outcome, int amount, int playerScore, int dealerScore) {
+        return new ServerMessage(withId(WireProtocol.SETTLEMENT, id, 7)
+                .put(outcome).putInt(amount).put((byte) playerScore).put((byte) dealerScore).array());
+    }
+
+    public static ServerMessage gameResult(byte status) {
+        return new ServerMessage(new byte[] {WireProtocol.GAME_RESULT, status});
+    }
+
+    public static ServerMessage session(String token) {
+        return new ServerMessage(withId(WireProtocol.SESSION, token, 0).array());
+    }
+
+    /** A seat's view of the table for a resumed connection; null hands are sent as no cards. */
+    public static ServerMessage snapshot(String id, int balance, int bet, byte phase, Hand dealer, Hand hand, String turnId) {
+        byte[] turn = turnId.getBytes(StandardCharsets.UTF_8);
+        int dealerCards = dealer == null ? 0 : dealer.size();
+        int handCards = hand == null ? 0 : hand.size();
+        ByteBuffer b = withId(WireProtocol.SNAPSHOT, id, 4 + 4 + 1 + (1 + dealerCards + 1) + (1 + handCards + 1) + 1 + turn.length);
+        b.putInt(balance).putInt(bet).put(phase);
+        putCards(b, dealer);
+        b.put((byte) (dealer == null ? 0 : dealer.getScore()));
+        putCards(b, hand);
+        b.put((byte) (hand == null ? 0 : hand.getScore()));
+        b.put((byte) turn.length).put(turn);
+        return new ServerMessage(b.array());
+    }
+
+    /** Totals of one BOT_PLAY batch; outcomes are counts by WireProtocol.OUTCOME_*. */
+    public static ServerMessage botResult(int rounds, long wagered, long paidOut, int balance, int millis, int[] outcomes) {
+        ByteBuffer b = ByteBuffer.allocate(1 + 4 + 8 + 8 + 4 + 4 + 4 * outcomes.length);
+        b.put(WireProtocol.BOT_RESULT).putInt(rounds).putLong(wagered).putLong(paidOut).putInt(balance).putInt(millis);
+        for (int count : outcomes) b.putInt(count);
+        return new ServerMessage(b.array());
+    }
+
+    /**
+     * A spectator's view of the whole table: every seat's bet and cards, the dealer's shown cards
+     * and whose turn it is (a TableStream keyframe). Null hands are sent as no cards.
+     */
+    public static ServerMessage tableView(int tableId, byte phase, Hand dealer, String turnId, TablePlayer[] seats, int[] bets, Hand[] hands) {
+        byte[] turn = turnId.getBytes(StandardCharsets.UTF_8);
+        byte[][] ids = new byte[seats.length][];
+        int size = 1 + 2 + 1 + (1 + (dealer == null ? 0 : dealer.size()) + 1) + 1 + turn.length + 1;
+        for (int i = 0; i < seats.length; i++) {
+            ids[i] = seats[i].getPlayerId().getBytes(StandardCharsets.UTF_8);
+            size += 1 + ids[i].length + 4 + (1 + (hands[i] == null ? 0 : hands[i].size()) + 1);
+        }
+        ByteBuffer b = ByteBuffer.allocate(size);
+        b.put(WireProtocol.TABLE_VIEW).putShort((short) tableId).put(phase);
+        putCards(b, dealer);
+        b.put((byte) (dealer == null ? 0 : dealer.getScore()));
+        b.put((byte) turn.length).put(turn);
+        b.put((byte) seats.length);
+        for (int i = 0; i < seats.length; i++) {
+            b.put((byte) ids[i].length).put(ids[i]);
+            b.putInt(bets[i]);
+            putCards(b, hands[i]);
+            b.put((byte) (hands[i] == null ? 0 : hands[i].getScore()));
+        }
+        return new ServerMessage(b.array());
+    }
+
+    /** One page of the lobby's table list; the arrays are per table. */
+    public static ServerMessage lobby(int openTables, int page, int seatsPerTable, int[] ids, int[] minBets, int[] maxBets,
+                                      int[] seatsTaken, int[] handsPerHour) {
+        ByteBuffer b = ByteBuffer.allocate(1 + 4 + 2 + 1 + 1 + ids.length * (2 + 4 + 4 + 1 + 4));
+        b.put(WireProtocol.LOBBY).putInt(openTables).putShort((short) page).put((byte) seatsPerTable).put((byte) ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            b.putShort((short) ids[i]).putInt(minBets[i]).putInt(maxBets[i]).put((byte) seatsTaken[i]).putInt(handsPerHour[i]);
+        }
+        return new ServerMessage(b.array());
+    }
+
+    private static void putCards(ByteBuffer b, Hand hand) {
+        int n = hand == null ? 0 : hand.size();
+        b.put((byte) n);
+        for (int i = 0; i < n; i++) {
+            b.put(WireProtocol.cardCode(hand.get(i)));
+        }
+    }
+
+    // opcode + id, with room for `extra` more payload bytes
+    private static ByteBuffer withId(byte opcode, String id, int extra) {
+        byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer b = ByteBuffer.allocate(2 + utf8.length + extra);
+        b.put(opcode).put((byte) utf8.length).put(utf8);
+        return b;
+    }
+}
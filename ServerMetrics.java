@@ -0,0 +1,198 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Server-wide counters and latency histograms.
+ * Recording is a LongAdder increment or a LatencyHistogram.record, so the hot paths (commands,
+ * table mailboxes, broadcast) never allocate or block. Read through JMX (see ServerMetricsMBean) or
+ * the plain-text endpoint started by serve(), in Prometheus text format.
+ */
+public final class ServerMetrics implements ServerMetricsMBean {
+    // Command types (client commands, text or binary)
+    public static final int CMD_START = 0;
+    public static final int CMD_PLACE_BET = 1;
+    public static final int CMD_PLAYER_ACTION = 2;
+    public static final int CMD_BALANCE = 3;
+    public static final int CMD_OTHER = 4;
+    private static final String[] CMD_NAMES = {"start", "place_bet", "player_action", "balance", "other"};
+
+    private static final LongAdder connectionsOpened = new LongAdder();
+    private static final LongAdder connectionsClosed = new LongAdder();
+    private static final LongAdder tablesOpened = new LongAdder();
+    private static final LongAdder tablesClosed = new LongAdder();
+    private static final LongAdder[] commands = new LongAdder[CMD_NAMES.length];
+    static {
+        for (int i = 0; i < commands.length; i++) commands[i] = new LongAdder();
+    }
+    private static final LongAdder outboundBytes = new LongAdder();
+    private static final LongAdder wagered = new LongAdder();
+    private static final LongAdder paidOut = new LongAdder();
+    private static final LongAdder turnTimeouts = new LongAdder();
+    private static final LongAdder bettingTimeouts = new LongAdder();
+    private static final LongAdder sitOuts = new LongAdder();
+    private static final LongAdder botRounds = new LongAdder(); // played at bot tables (BOT_PLAY), not in roundDuration
+    private static final LongAdder spectatorsJoined = new LongAdder();
+    private static final LongAdder spectatorsLeft = new LongAdder();
+    private static final LongAdder spectatorMessages = new LongAdder(); // queued by SpectatorFanout
+    private static final LongAdder spectatorSkips = new LongAdder();    // lapped spectators sent ahead to a keyframe
+
+    // Nanoseconds
+    private static final LatencyHistogram mailboxWait = new LatencyHistogram(); // enqueue -> a table worker picks the task up
+    private static final LatencyHistogram tableTask = new LatencyHistogram();   // running one task, publishing included
+    private static final LatencyHistogram roundDuration = new LatencyHistogram();
+    private static final LatencyHistogram broadcast = new LatencyHistogram();
+
+    private static final ServerMetrics INSTANCE = new ServerMetrics();
+
+    private ServerMetrics() {}
+
+    public static void connectionOpened() { connectionsOpened.increment(); }
+    public static void connectionClosed() { connectionsClosed.increment(); }
+    public static void tableOpened() { tablesOpened.increment(); }
+    public static void tableClosed() { tablesClosed.increment(); }
+    public static void command(int type) { commands[type].increment(); }
+    public static void bytesWritten(long n) { outboundBytes.add(n); }
+    public static void wagered(int amount) { wagered.add(amount); }
+    public static void paidOut(int amount) { paidOut.add(amount); }
+    public static void turnTimeout() { turnTimeouts.increment(); }
+    public static void bettingTimeout() { bettingTimeouts.increment(); }
+    public static void satOut() { sitOuts.increment(); }
+    public static void botRounds(int rounds, long wagered, long paidOut) {
+        botRounds.add(rounds);
+        ServerMetrics.wagered.add(wagered);
+        ServerMetrics.paidOut.add(paidOut);
+    }
+    public static void spectatorJoined() { spectatorsJoined.increment(); }
+    public static void spectatorLeft() { spectatorsLeft.increment(); }
+    public static void spectatorMessages(int n) { spectatorMessages.add(n); }
+    public static void spectatorSkip() { spectatorSkips.increment(); }
+    public static void mailboxWait(long nanos) { mailboxWait.record(nanos); }
+    public static void tableTask(long nanos) { tableTask.record(nanos); }
+    public static void roundDuration(long nanos) { roundDuration.record(nanos); }
+    public static void broadcast(long nanos) { broadcast.record(nanos); }
+
+    /** Registers the MBean on the platform MBean server (visible in jconsole / VisualVM). */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("blackjack:type=ServerMetrics"));
+        } catch (JMException e) {
+            System.out.println("Metrics MBean not registered: " + e.getMessage());
+        }
+    }
+
+    /** Serves the text format at http://host:port/metrics on a single daemon thread. */
+    public static void serve(int port) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/metrics", exchange -> {
+            byte[] body = INSTANCE.getText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.setExecutor(command -> {
+            Thread t = new Thread(command, "metrics-http");
+            t.setDaemon(true);
+            t.start();
+        });
+        http.start();
+        System.out.println("Metrics endpoint on http://localhost:" + port + "/metrics");
+    }
+
+    @Override
+    public String getText() {
+        StringBuilder sb = new StringBuilder(4096);
+        counter(sb, "blackjack_connections_opened_total", connectionsOpened.sum());
+        counter(sb, "blackjack_connections_closed_total", connectionsClosed.sum());
+        gauge(sb, "blackjack_connections_active", getConnectionsActive());
+        gauge(sb, "blackjack_tables_open", getTablesOpen());
+        sb.append("# TYPE blackjack_commands_total counter\n");
+        for (int i = 0; i < commands.length; i++) {
+            sb.append("blackjack_commands_total{type=\"").append(CMD_NAMES[i]).append("\"} ").append(commands[i].sum()).append('\n');
+        }
+        summary(sb, "blackjack_table_mailbox_wait_seconds", mailboxWait);
+        summary(sb, "blackjack_table_task_seconds", tableTask);
+        summary(sb, "blackjack_round_duration_seconds", roundDuration);
+        summary(sb, "blackjack_broadcast_seconds", broadcast);
+        counter(sb, "blackjack_outbound_bytes_total", outboundBytes.sum());
+        gauge(sb, "blackjack_outbound_queued_lines", OutboundQueue.getQueuedLines());
+        gauge(sb, "blackjack_outbound_max_depth", OutboundQueue.getMaxDepth());
+        counter(sb, "blackjack_outbound_dropped_lines_total", OutboundQueue.getDroppedLines());
+        counter(sb, "blackjack_slow_consumer_disconnects_total", OutboundQueue.getSlowConsumerDisconnects());
+        counter(sb, "blackjack_wagered_total", wagered.sum());
+        counter(sb, "blackjack_paid_out_total", paidOut.sum());
+        counter(sb, "blackjack_turn_timeouts_total", turnTimeouts.sum());
+        counter(sb, "blackjack_betting_timeouts_total", bettingTimeouts.sum());
+        counter(sb, "blackjack_sit_outs_total", sitOuts.sum());
+        counter(sb, "blackjack_bot_rounds_total", botRounds.sum());
+        gauge(sb, "blackjack_spectators", getSpectators());
+        counter(sb, "blackjack_spectator_messages_total", spectatorMessages.sum());
+        counter(sb, "blackjack_spectator_skips_total", spectatorSkips.sum());
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, String name, long value) {
+        sb.append("# TYPE ").append(name).append(" counter\n").append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder sb, String name, long value) {
+        sb.append("# TYPE ").append(name).append(" gauge\n").append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder sb, String name, LatencyHistogram h) {
+        sb.append("# TYPE ").append(name).append(" summary\n");
+        for (double q : new double[] {0.5, 0.99, 0.999}) {
+            sb.append(name).append("{quantile=\"").append(q).append("\"} ")
+                    .append(h.valueAtPercentile(q * 100) / 1e9).append('\n');
+        }
+        sb.append(name).append("_sum ").append(h.getSum() / 1e9).append('\n');
+        sb.append(name).append("_count ").append(h.getCount()).append('\n');
+    }
+
+    private static double micros(LatencyHistogram h, double percentile) {
+        return h.valueAtPercentile(percentile) / 1e3;
+    }
+
+    @Override public long getConnectionsOpened() { return connectionsOpened.sum(); }
+    @Override public long getConnectionsClosed() { return connectionsClosed.sum(); }
+    @Override public long getConnectionsActive() { return connectionsOpened.sum() - connectionsClosed.sum(); }
+    @Override public long getTablesOpen() { return tablesOpened.sum() - tablesClosed.sum(); }
+
+    @Override public long getCommandsStart() { return commands[CMD_START].sum(); }
+    @Override public long getCommandsPlaceBet() { return commands[CMD_PLACE_BET].sum(); }
+    @Override public long getCommandsPlayerAction() { return commands[CMD_PLAYER_ACTION].sum(); }
+    @Override public long getCommandsBalance() { return commands[CMD_BALANCE].sum(); }
+    @Override public long getCommandsOther() { return commands[CMD_OTHER].sum(); }
+
+    @Override public long getRoundsCompleted() { return roundDuration.getCount(); }
+    @Override public double getRoundDurationP50Micros() { return micros(roundDuration, 50); }
+    @Override public double getRoundDurationP99Micros() { return micros(roundDuration, 99); }
+    @Override public double getMailboxWaitP99Micros() { return micros(mailboxWait, 99); }
+    @Override public double getTableTaskP99Micros() { return micros(tableTask, 99); }
+    @Override public double getBroadcastP99Micros() { return micros(broadcast, 99); }
+
+    @Override public long getOutboundBytes() { return outboundBytes.sum(); }
+    @Override public long getOutboundQueuedLines() { return OutboundQueue.getQueuedLines(); }
+    @Override public int getOutboundMaxDepth() { return OutboundQueue.getMaxDepth(); }
+    @Override public long getOutboundDroppedLines() { return OutboundQueue.getDroppedLines(); }
+    @Override public long getSlowConsumerDisconnects() { return OutboundQueue.getSlowConsumerDisconnects(); }
+
+    @Override public long getTotalWagered() { return wagered.sum(); }
+    @Override public long getTotalPaidOut() { return paidOut.sum(); }
+
+    @Override public long getTurnTimeouts() { return turnTimeouts.sum(); }
+    @Override public long getBettingTimeouts() { return bettingTimeouts.sum(); }
+    @Override public long getSitOuts() { return sitOuts.sum(); }
+    @Override public long getBotRounds() { return botRounds.sum(); }
+    @Override public long getSpectators() { return spectatorsJoined.sum() - spectatorsLeft.sum(); }
+    @Override public long getSpectatorMessages() { return spectatorMessages.sum(); }
+    @Override public long getSpectatorSkips() { return spectatorSkips.sum(); }
+}
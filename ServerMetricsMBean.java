@@ -0,0 +1,44 @@
+/**
+ * JMX view of ServerMetrics (registered as "blackjack:type=ServerMetrics").
+ * Latencies are in microseconds.
+ */
+public interface ServerMetricsMBean {
+    long getConnectionsOpened();
+    long getConnectionsClosed();
+    long getConnectionsActive();
+    long getTablesOpen();
+
+    long getCommandsStart();
+    long getCommandsPlaceBet();
+    long getCommandsPlayerAction();
+    long getCommandsBalance();
+    long getCommandsOther();
+
+    long getRoundsCompleted();
+    double getRoundDurationP50Micros();
+    double getRoundDurationP99Micros();
+    double getMailboxWaitP99Micros();
+    double getTableTaskP99Micros();
+    double getBroadcastP99Micros();
+
+    long getOutboundBytes();
+    long getOutboundQueuedLines();
+    int getOutboundMaxDepth();
+    long getOutboundDroppedLines();
+    long getSlowConsumerDisconnects();
+
+    long getTotalWagered();
+    long getTotalPaidOut();
+
+    long getTurnTimeouts();     // players stood automatically
+    long getBettingTimeouts();  // betting phases closed by the deadline
+    long getSitOuts();          // players who sat a round out for not betting in time
+    long getBotRounds();        // rounds played in BOT_PLAY batches
+
+    long getSpectators();         // connections watching a table
+    long getSpectatorMessages();  // table stream messages queued to spectators
+    long getSpectatorSkips();     // times a lagging spectator skipped ahead to a keyframe
+
+    /** Same text as the scrape endpoint. */
+    String getText();
+}
@@ -0,0 +1,134 @@
+import java.util.SplittableRandom;
+
+/**
+ * A dealing shoe of 1-8 decks, one per table.
+ * Cards are kept as rank codes (Card.Rank ordinal) in a flat byte[] and shuffled in place with
+ * Fisher-Yates, so dealing takes no shared lock and allocates nothing. When the cut card is
+ * reached the shoe is reshuffled before the next round.
+ *
+ * Every shuffle starts from the unshuffled order and uses its own seed, and each seed is derived
+ * from the one before. So (seed, position) pins down every card still to come: HandHistory logs
+ * that pair per round and restore() rebuilds the shoe from it.
+ */
+public final class Shoe {
+    public static final int MIN_DECKS = 1;
+    public static final int MAX_DECKS = 8;
+    private static final int CARDS_PER_DECK = 52;
+    private static final int RANKS = Card.Rank.values().length;
+
+    // Defaults for new shoes (set once from BlackjackServer startup options)
+    private static volatile int defaultDecks = 6;
+    private static volatile double defaultPenetration = 0.75;
+    private static volatile Long serverSeed = null; // null = every table seeded randomly
+
+    private final byte[] cards;
+    private final int cutCard;          // index at which the next round triggers a reshuffle
+    private long seed;                  // seed of the current order
+    private int next = 0;
+    private int shuffles = 0;
+
+    public Shoe(int decks, double penetration, SplittableRandom random) {
+        this(decks, penetration, random.nextLong());
+    }
+
+    public Shoe(int decks, double penetration, long seed) {
+        this(decks, cutCardFor(decks, penetration), seed, 0);
+    }
+
+    private Shoe(int decks, int cutCard, long seed, int position) {
+        if (decks < MIN_DECKS || decks > MAX_DECKS) {
+            throw new IllegalArgumentException("decks must be " + MIN_DECKS + "-" + MAX_DECKS + ": " + decks);
+        }
+        this.cards = new byte[decks * CARDS_PER_DECK];
+        if (cutCard < 1 || cutCard > cards.length || position < 0 || position > cards.length) {
+            throw new IllegalArgumentException("bad cut card / position: " + cutCard + " / " + position);
+        }
+        this.cutCard = cutCard;
+        this.seed = seed;
+        arrange();
+        this.next = position;
+        shuffles = 1;
+    }
+
+    private static int cutCardFor(int decks, double penetration) {
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("penetration must be in (0, 1]: " + penetration);
+        }
+        return Math.max(1, (int) (decks * CARDS_PER_DECK * penetration));
+    }
+
+    /** The shoe exactly as it was when seed and position were read from it (see getSeed). */
+    public static Shoe restore(int decks, int cutCard, long seed, int position) {
+        return new Shoe(decks, cutCard, seed, position);
+    }
+
+    /**
+     * Shoe for one table using the server defaults. With a server seed the table's shuffles are
+     * fixed by that seed and the table ID; otherwise the table is seeded randomly.
+     */
+    public static Shoe forTable(int tableId) {
+        Long base = serverSeed;
+        long seed = base != null ? new SplittableRandom(base + tableId * 0x9E3779B97F4A7C15L).nextLong()
+                : new SplittableRandom().nextLong();
+        return new Shoe(defaultDecks, defaultPenetration, seed);
+    }
+
+    public static void setServerSeed(Long seed) { serverSeed = seed; }
+
+    public static void setDefaults(int decks, double penetration) {
+        new Shoe(decks, penetration, new SplittableRandom(0)); // validates
+        defaultDecks = decks;
+        defaultPenetration = penetration;
+    }
+
+    public static int getDefaultDecks() { return defaultDecks; }
+    public static double getDefaultPenetration() { return defaultPenetration; }
+
+    public void shuffle() {
+        seed = new SplittableRandom(seed).nextLong();
+        arrange();
+        shuffles++;
+    }
+
+    // Unshuffled order, then Fisher-Yates with this shuffle's seed
+    private void arrange() {
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = (byte) (i % RANKS); // 4 suits x 13 ranks per deck
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+        next = 0;
+    }
+
+    /** Called between rounds; returns true if the cut card was reached and the shoe was reshuffled. */
+    public boolean shuffleIfNeeded() {
+        if (next < cutCard) return false;
+        shuffle();
+        return true;
+    }
+
+    /** Next rank code. A shoe that runs dry mid-round is reshuffled on the spot. */
+    public byte draw() {
+        if (next == cards.length) {
+            shuffle();
+        }
+        return cards[next++];
+    }
+
+    public Card drawCard() {
+        return Card.of(draw());
+    }
+
+    public int getDecks() { return cards.length / CARDS_PER_DECK; }
+    public int size() { return cards.length; }
+    public int remaining() { return cards.length - next; }
+    public int getShuffleCount() { return shuffles; }
+    public long getSeed() { return seed; }
+    public int getPosition() { return next; }
+    public int getCutCard() { return cutCard; }
+}
@@ -0,0 +1,143 @@
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves table streams to spectators. One daemon thread walks every subscription, reads what its
+ * table has published since the subscription's cursor and queues it on the spectator's
+ * connection, so the tables' workers never do per-spectator work and never wait for a
+ * spectator's socket.
+ *
+ * A spectator whose outbound queue is still full of earlier messages is passed over (its queue
+ * never overflows, so the slow-consumer policy doesn't apply to it). Meanwhile the table goes on
+ * writing; once the spectator is a whole ring behind, its next read jumps to the latest keyframe.
+ * When TableManager closes a table, its spectators are dropped and told so.
+ *
+ * With nothing to send the thread parks until a watched table publishes or someone subscribes;
+ * it only polls while a spectator's full queue holds back messages it still has to get.
+ */
+public final class SpectatorFanout implements Runnable {
+    private static final int MAX_PER_PASS = 64;                         // messages per spectator per pass
+    private static final long BACKLOG_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2); // waiting for slow queues to drain
+
+    /** One spectator watching one table. */
+    public static final class Subscription {
+        final GameRoom room;
+        final ClientHandlerB spectator;
+        private final TableStream.Reader reader;
+        private volatile boolean closed;
+
+        private Subscription(SpectatorFanout fanout, GameRoom room, ClientHandlerB spectator) {
+            this.room = room;
+            this.spectator = spectator;
+            this.reader = room.getStream().subscribe(fanout::wake);
+        }
+
+        public GameRoom getRoom() { return room; }
+    }
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private volatile Thread thread;
+    private volatile boolean sleeping; // parked with nothing to do; the next wake() unparks it
+    private boolean backlogged;        // fanout thread only: the last pass skipped a full queue
+
+    /** Starts `spectator` on `room`'s stream; it begins with a fresh keyframe. */
+    public Subscription subscribe(GameRoom room, ClientHandlerB spectator) {
+        Subscription s = new Subscription(this, room, spectator);
+        subscriptions.add(s);
+        ServerMetrics.spectatorJoined();
+        if (room.isClosed()) { // closed while this spectator was on its way; closeTable may have missed it
+            drop(s);
+            return s;
+        }
+        room.watched();
+        start();
+        wake();
+        return s;
+    }
+
+    public void unsubscribe(Subscription s) {
+        remove(s);
+    }
+
+    /** The table was closed: its spectators stop watching and are told so. Call after GameRoom.markClosed. */
+    public void closeTable(GameRoom room) {
+        for (Subscription s : subscriptions) {
+            if (s.room == room) drop(s);
+        }
+    }
+
+    private void drop(Subscription s) {
+        if (remove(s)) {
+            s.spectator.sendMessage("INFO: Table #" + s.room.getTableId() + " has closed. SPECTATE, JOIN_TABLE or QUICK_SEAT to go on.");
+        }
+    }
+
+    // True for the one caller that actually removed it
+    private boolean remove(Subscription s) {
+        s.closed = true;
+        if (!subscriptions.remove(s)) return false;
+        s.room.getStream().unsubscribe();
+        ServerMetrics.spectatorLeft();
+        return true;
+    }
+
+    public int size() { return subscriptions.size(); }
+
+    // The thread only exists once somebody watches
+    private void start() {
+        if (thread != null) return;
+        synchronized (this) {
+            if (thread == null) {
+                thread = Thread.ofPlatform().daemon().name("spectator-fanout").start(this);
+            }
+        }
+    }
+
+    /** Something new to send (a table published, or a new subscription); cheap when already awake. */
+    void wake() {
+        if (sleeping) {
+            sleeping = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            if (pass() > 0) continue;
+            if (backlogged) {
+                LockSupport.parkNanos(BACKLOG_PARK_NANOS);
+                continue;
+            }
+            // Announce the park, then look once more: a publish before the flag was set is seen
+            // by this pass, one after it sees the flag and unparks
+            sleeping = true;
+            if (pass() == 0 && !backlogged) LockSupport.park(this);
+            sleeping = false;
+        }
+    }
+
+    private int pass() {
+        backlogged = false;
+        int sent = 0;
+        for (Subscription s : subscriptions) {
+            sent += pump(s);
+        }
+        return sent;
+    }
+
+    private int pump(Subscription s) {
+        if (s.closed) return 0;
+        OutboundQueue out = s.spectator.getOutbound();
+        int room = Math.min(MAX_PER_PASS, out.remainingCapacity() - 1); // one slot left for command replies
+        if (room <= 0) { // slow: let the ring run on without it, and come back once its queue drains
+            backlogged = true;
+            return 0;
+        }
+        int n = s.room.getStream().read(s.reader, room, s.spectator::send, ServerMetrics::spectatorSkip);
+        if (n > 0) ServerMetrics.spectatorMessages(n);
+        return n;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A table's bet limits. Tables are opened per stakes level (BlackjackServer --stakes) and the
+ * lobby lists and quick-seats by level.
+ */
+public final class Stakes {
+    public static final Stakes ANY = new Stakes(1, 0);
+
+    private final int minBet;
+    private final int maxBet; // 0 = no limit
+
+    public Stakes(int minBet, int maxBet) {
+        if (minBet < 1 || (maxBet != 0 && maxBet < minBet)) throw new IllegalArgumentException("Bad stakes " + minBet + "-" + maxBet);
+        this.minBet = minBet;
+        this.maxBet = maxBet;
+    }
+
+    /** "10-500,100-5000,1000-0": one level per MIN-MAX pair, 0 = no maximum. */
+    public static Stakes[] parseList(String text) {
+        List<Stakes> levels = new ArrayList<>();
+        for (String level : text.split(",")) {
+            String[] range = level.trim().split("-", 2);
+            if (range.length != 2) throw new IllegalArgumentException("Stakes must be MIN-MAX: " + level);
+            levels.add(new Stakes(Integer.parseInt(range[0]), Integer.parseInt(range[1])));
+        }
+        return levels.toArray(new Stakes[0]);
+    }
+
+    public int getMinBet() { return minBet; }
+    public int getMaxBet() { return maxBet; }
+
+    public boolean allows(int bet) {
+        return bet >= minBet && (maxBet == 0 || bet <= maxBet);
+    }
+
+    @Override
+    public String toString() {
+        return maxBet == 0 ? minBet + "+" : minBet + "-" + maxBet;
+    }
+}
@@ -0,0 +1,277 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns every GameRoom (table) on this server, and the lobby over them.
+ * Tables are opened per stakes level. A player is quick-seated at the fullest table of a level
+ * that has a free seat (see SeatIndex); a table is opened when all are full and closed again when
+ * its last player leaves, down to minTables per level. Seat counts live in the index, not in
+ * GameRoom, so seating never waits on a table and takes no lock. Each table is an actor (see
+ * GameRoom) and all of them share one small worker pool, so tables run in parallel without a
+ * thread each.
+ */
+public class TableManager {
+    public static final int MAX_TABLES = 65_535; // table numbers are u16 on the wire
+    public static final int LOBBY_PAGE = 32;     // tables per LOBBY message
+
+    private final int seatsPerTable;
+    private final int minTables; // per stakes level
+    private final long dealerDelayMillis;
+    private final Executor tableWorkers;
+    private volatile Ledger ledger = Ledger.inMemory(); // player wallets (see Ledger)
+    private volatile HandHistory handHistory; // null = rounds are not logged
+
+    // Resume tokens of live and parked connections (see ClientHandlerB.resume)
+    private final ConcurrentHashMap<String, ClientHandlerB> sessions = new ConcurrentHashMap<>();
+    private volatile long resumeGraceMillis = 30_000;
+
+    // Shared timeline for dealer steps, turn/betting deadlines and session expiry; tasks are short,
+    // so one wheel thread serves every table
+    private final TimerWheel timers = TimerWheel.withDefaults("table-timers");
+
+    // Feeds every spectator from the tables' streams; its thread starts with the first spectator
+    private final SpectatorFanout spectators = new SpectatorFanout();
+
+    // Pushed to every table when changed; a table opened meanwhile reads them after it is listed
+    private volatile long turnTimeoutMillis = 30_000;
+    private volatile long betTimeoutMillis = 30_000;
+
+    private final Stakes[] stakes;             // one entry per level
+    private final SeatIndex seats;
+    private final ConcurrentHashMap<Integer, GameRoom> tables = new ConcurrentHashMap<>(); // open tables by number
+    private final AtomicInteger[] openTables;  // per level
+    private final AtomicBoolean[] opening;     // per level: one thread opens a table while the others wait for it
+    private final AtomicInteger nextTableId = new AtomicInteger(1);
+
+    public TableManager(int seatsPerTable, long dealerDelayMillis) {
+        this(seatsPerTable, 1, dealerDelayMillis);
+    }
+
+    public TableManager(int seatsPerTable, int minTables, long dealerDelayMillis) {
+        this(seatsPerTable, minTables, dealerDelayMillis, newWorkerPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    public TableManager(int seatsPerTable, int minTables, long dealerDelayMillis, Executor tableWorkers) {
+        this(seatsPerTable, minTables, dealerDelayMillis, tableWorkers, new Stakes[] {Stakes.ANY});
+    }
+
+    public TableManager(int seatsPerTable, int minTables, long dealerDelayMillis, Executor tableWorkers, Stakes[] stakes) {
+        this.seatsPerTable = seatsPerTable;
+        this.minTables = minTables;
+        this.dealerDelayMillis = dealerDelayMillis;
+        this.tableWorkers = tableWorkers;
+        this.stakes = stakes.clone();
+        this.seats = new SeatIndex(stakes.length, seatsPerTable, MAX_TABLES);
+        this.openTables = new AtomicInteger[stakes.length];
+        this.opening = new AtomicBoolean[stakes.length];
+        for (int level = 0; level < stakes.length; level++) {
+            openTables[level] = new AtomicInteger();
+            opening[level] = new AtomicBoolean();
+            for (int i = 0; i < minTables; i++) {
+                openTable(level, 0);
+            }
+        }
+    }
+
+    /** Seats the player at the best table of the first stakes level and joins it (on connect). */
+    public GameRoom seat(ClientHandlerB player) {
+        GameRoom room = quickSeat(0);
+        room.join(player);
+        return room;
+    }
+
+    /**
+     * Takes a seat at the fullest table of `level` with one free, opening a table if all are full.
+     * The caller joins the table.
+     */
+    public GameRoom quickSeat(int level) {
+        for (int tries = 0; ; tries++) {
+            int slot = seats.quickSeat(level);
+            if (slot >= 0) return seats.room(slot);
+            // Every table at this level is full. One thread opens the next; the rest wait to take
+            // seats in it rather than each opening a table (after a while they open their own).
+            boolean opener = opening[level].compareAndSet(false, true);
+            if (!opener && tries < 100) {
+                Thread.yield();
+                continue;
+            }
+            try {
+                slot = opener ? seats.quickSeat(level) : -1; // a seat may have come free meanwhile
+                return slot >= 0 ? seats.room(slot) : openTable(level, 1);
+            } finally {
+                if (opener) opening[level].set(false);
+            }
+        }
+    }
+
+    /** Like quickSeat, but never opens a table; null if every table of `level` is full. */
+    public GameRoom findSeat(int level) {
+        int slot = seats.quickSeat(level);
+        return slot >= 0 ? seats.room(slot) : null;
+    }
+
+    public int seatsTaken(GameRoom room) {
+        return room.getSlot() < 0 ? 0 : seats.seatsTaken(room.getSlot());
+    }
+
+    /** Takes a seat at this table for a JOIN; false if it is full or closed. */
+    public boolean reserveSeat(GameRoom room) {
+        return seats.reserve(room.getSlot(), room);
+    }
+
+    /** Leaves the table and frees the seat; empty tables above the minimum are closed. */
+    public void leave(ClientHandlerB player, GameRoom room) {
+        room.leave(player);
+        releaseSeat(room);
+    }
+
+    /** Gives back a seat taken with quickSeat or reserveSeat that won't be used. */
+    void releaseSeat(GameRoom room) {
+        int slot = room.getSlot();
+        if (slot < 0) return; // bot table
+        if (seats.release(slot) > 0) return;
+        AtomicInteger open = openTables[levelOf(room)];
+        int n = open.get();
+        while (n > minTables) {
+            if (open.compareAndSet(n, n - 1)) {
+                if (seats.retire(slot)) {
+                    tables.remove(room.getTableId());
+                    room.markClosed();
+                    spectators.closeTable(room);
+                    ServerMetrics.tableClosed();
+                    System.out.println("Table #" + room.getTableId() + " closed. (Open tables: " + tables.size() + ")");
+                } else {
+                    open.incrementAndGet(); // somebody sat down meanwhile
+                }
+                return;
+            }
+            n = open.get();
+        }
+    }
+
+    // Lists the table first, then hands it the current settings, so a concurrent setTimeouts or
+    // setHandHistory reaches it either way
+    private GameRoom openTable(int level, int seatsTaken) {
+        GameRoom room = new GameRoom(nextTableId.getAndIncrement(), tableWorkers, timers, dealerDelayMillis, stakes[level]);
+        if (seats.add(room, level, seatsTaken) < 0) throw new IllegalStateException("All " + MAX_TABLES + " tables are open");
+        tables.put(room.getTableId(), room);
+        openTables[level].incrementAndGet();
+        room.setTimeouts(turnTimeoutMillis, betTimeoutMillis);
+        HandHistory history = handHistory;
+        if (history != null) room.recordTo(history);
+        ServerMetrics.tableOpened();
+        if (tables.size() > minTables * stakes.length) {
+            System.out.println("Table #" + room.getTableId() + " opened. (Stakes " + stakes[level] + ", open tables: " + tables.size() + ")");
+        }
+        return room;
+    }
+
+    /** A private table for one bot's BOT_PLAY batches; it never takes other players and is dropped when the bot leaves. */
+    public GameRoom openBotTable() {
+        GameRoom room = GameRoom.forBots(nextTableId.getAndIncrement(), tableWorkers);
+        HandHistory history = handHistory;
+        if (history != null) room.recordTo(history);
+        return room;
+    }
+
+    /** The open table with this number, or null (bot tables aren't listed). */
+    public GameRoom findTable(int tableId) {
+        return tables.get(tableId);
+    }
+
+    /** The stakes level for a bet: the first level that allows it, or -1. */
+    public int levelFor(int bet) {
+        for (int level = 0; level < stakes.length; level++) {
+            if (stakes[level].allows(bet)) return level;
+        }
+        return -1;
+    }
+
+    private int levelOf(GameRoom room) {
+        for (int level = 0; level < stakes.length; level++) {
+            if (stakes[level] == room.getStakes()) return level;
+        }
+        return 0;
+    }
+
+    /** One page of the lobby: open tables in index order with their stakes, seats and pace. */
+    public ServerMessage lobby(int page) {
+        GameRoom[] rooms = new GameRoom[LOBBY_PAGE];
+        int n = seats.list(page * LOBBY_PAGE, rooms);
+        int[] ids = new int[n], minBets = new int[n], maxBets = new int[n], taken = new int[n], handsPerHour = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = rooms[i].getTableId();
+            minBets[i] = rooms[i].getStakes().getMinBet();
+            maxBets[i] = rooms[i].getStakes().getMaxBet();
+            taken[i] = seats.seatsTaken(rooms[i].getSlot());
+            handsPerHour[i] = rooms[i].getHandsPerHour();
+        }
+        return ServerMessage.lobby(tables.size(), page, seatsPerTable, ids, minBets, maxBets, taken, handsPerHour);
+    }
+
+    /** Starts streaming `room` to `spectator` (who holds no seat anywhere). */
+    public SpectatorFanout.Subscription watch(GameRoom room, ClientHandlerB spectator) {
+        return spectators.subscribe(room, spectator);
+    }
+
+    public void unwatch(SpectatorFanout.Subscription subscription) {
+        spectators.unsubscribe(subscription);
+    }
+
+    /** Daemon platform threads that drain the table mailboxes. */
+    public static ExecutorService newWorkerPool(int threads) {
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().daemon().name("table-worker-", 0).factory());
+    }
+
+    public void registerSession(String token, ClientHandlerB player) {
+        sessions.put(token, player);
+    }
+
+    /** Removes and returns the session for a token (null if unknown or already gone). */
+    public ClientHandlerB takeSession(String token) {
+        return sessions.remove(token);
+    }
+
+    public void endSession(String token, ClientHandlerB player) {
+        sessions.remove(token, player);
+    }
+
+    public TimerWheel.Timeout schedule(Runnable task, long delayMillis) {
+        return timers.schedule(task, delayMillis);
+    }
+
+    /** How long a player has for each decision and for betting; 0 = wait forever. */
+    public void setTimeouts(long turnMillis, long betMillis) {
+        this.turnTimeoutMillis = turnMillis;
+        this.betTimeoutMillis = betMillis;
+        for (GameRoom room : tables.values()) {
+            room.setTimeouts(turnMillis, betMillis);
+        }
+    }
+
+    public long getTurnTimeoutMillis() { return turnTimeoutMillis; }
+    public long getBetTimeoutMillis() { return betTimeoutMillis; }
+
+    /** How long a dropped connection's seat is held for RESUME; 0 = leave at once. */
+    public void setResumeGraceMillis(long millis) { this.resumeGraceMillis = millis; }
+    public long getResumeGraceMillis() { return resumeGraceMillis; }
+
+    /** Logs every table's rounds for HandReplay; applies from each table's next round. */
+    public void setHandHistory(HandHistory history) {
+        this.handHistory = history;
+        for (GameRoom room : tables.values()) {
+            room.recordTo(history);
+        }
+    }
+
+    public void setLedger(Ledger ledger) { this.ledger = ledger; }
+    public Ledger getLedger() { return ledger; }
+
+    public int getTableCount() { return tables.size(); }
+    public Stakes[] getStakes() { return stakes.clone(); }
+    public int getSeatsPerTable() { return seatsPerTable; }
+}
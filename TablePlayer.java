@@ -0,0 +1,29 @@
+/**
+ * A seat's player state as RoundEngine sees it (ClientHandlerB at live tables).
+ * The engine only reads and updates the game fields; send() is used by GameRoom when it
+ * publishes the engine's events.
+ */
+public interface TablePlayer {
+    String getPlayerId();
+
+    int getBalance();
+    void decreaseBalance(int amount);
+    void increaseBalance(int amount);
+
+    int getCurrentBet();
+    void setCurrentBet(int amount);
+    boolean isBetPlaced();
+    void setBetPlaced(boolean placed);
+    boolean isSurrender();
+    void setSurrender(boolean surrender);
+
+    Hand getHand();
+    void resetRound();
+
+    /** True while the player's connection is down but the seat is held; the engine stands for them. */
+    default boolean isAway() { return false; }
+    /** Set by RoundEngine.playerAway on the table's worker, so the flag flips in command order. */
+    default void setAway(boolean away) {}
+
+    void send(ServerMessage msg);
+}
@@ -0,0 +1,133 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A table's public event stream for spectators: one ring buffer per table, shared by every
+ * spectator of that table.
+ *
+ * Only the table's worker writes: a published message is one slot store and one volatile write,
+ * however many spectators there are, and nothing at all while nobody watches. Readers never touch
+ * the table; each keeps its own cursor (see SpectatorFanout) and reads behind the writer. A
+ * reader that falls more than a ring behind has lost entries, so it skips ahead to the latest
+ * keyframe (a TABLE_VIEW of the whole table, see GameRoom) and carries on from there. The writer
+ * never waits for anyone.
+ */
+public final class TableStream {
+    private static volatile int defaultCapacity = 1024;
+
+    // An entry knows its position, so a reader can tell when its slot was overwritten under it
+    private static final class Entry {
+        final long seq;
+        final ServerMessage msg;
+
+        Entry(long seq, ServerMessage msg) {
+            this.seq = seq;
+            this.msg = msg;
+        }
+    }
+
+    private final int size;
+    private Entry[] ring;               // allocated by the first subscribe, so unwatched tables carry no ring
+    private long next;                  // writer only
+    private volatile long published;    // entries [0, published) are in the ring, the last `capacity` of them still readable
+    private volatile Entry keyframe;    // latest TABLE_VIEW; null until the first spectator asked for one
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile Runnable onAppend;  // wakes the reader thread (SpectatorFanout.wake)
+
+    public TableStream() {
+        this(defaultCapacity);
+    }
+
+    public TableStream(int capacity) {
+        this.size = Integer.highestOneBit(Math.max(16, capacity - 1) << 1); // next power of two
+    }
+
+    /** Ring size for new tables (set once from BlackjackServer startup options). */
+    public static void setDefaults(int capacity) {
+        defaultCapacity = capacity;
+    }
+
+    /** Cheap enough for every broadcast; the worker skips all stream work while this is false. */
+    public boolean hasSubscribers() { return subscribers.get() > 0; }
+
+    /**
+     * A new reader; it starts at the first keyframe written from now on (see GameRoom.watched).
+     * `onAppend` runs on the writer after every append, to wake whoever reads.
+     */
+    public synchronized Reader subscribe(Runnable onAppend) {
+        this.onAppend = onAppend;
+        if (ring == null) ring = new Entry[size]; // the worker only looks at it after seeing the count below
+        subscribers.incrementAndGet();
+        return new Reader(published);
+    }
+
+    public void unsubscribe() {
+        subscribers.decrementAndGet();
+    }
+
+    // ---- Writer (the table's worker) ----
+
+    public void append(ServerMessage msg) {
+        publish(new Entry(next++, msg), false);
+    }
+
+    /** Appends a full view of the table; lagging and new readers start here. */
+    public void appendKeyframe(ServerMessage view) {
+        publish(new Entry(next++, view), true);
+    }
+
+    // The keyframe is in place before the entry is published, so a reader woken for it finds it
+    private void publish(Entry e, boolean isKeyframe) {
+        ring[(int) e.seq & (size - 1)] = e;
+        if (isKeyframe) keyframe = e;
+        published = e.seq + 1;
+        Runnable wake = onAppend;
+        if (wake != null) wake.run();
+    }
+
+    // ---- Readers ----
+
+    /** One reader's position; used by one thread at a time. */
+    public static final class Reader {
+        private static final long START = -1;           // no position yet: waiting for a keyframe
+        private static final long LAPPED = Long.MIN_VALUE / 2; // any position more than a ring behind
+
+        private final long since; // an older keyframe is from before this reader subscribed
+        private long cursor = START;
+
+        private Reader(long since) {
+            this.since = since;
+        }
+    }
+
+    /**
+     * Hands up to `max` entries at `r`'s position on to `out` and returns how many. A new or
+     * lapped reader first gets the latest keyframe; `skipped` runs when one that already had a
+     * position was lapped.
+     */
+    public int read(Reader r, int max, Consumer<ServerMessage> out, Runnable skipped) {
+        long end = published;
+        long cursor = r.cursor;
+        int n = 0;
+        if (cursor == Reader.START || end - cursor > size) {
+            Entry k = keyframe;
+            if (k == null || (cursor == Reader.START && k.seq < r.since)) return 0; // not written yet
+            if (cursor != Reader.START) skipped.run();
+            out.accept(k.msg);
+            n++;
+            // Entries between the keyframe and the oldest readable one (only if a single phase
+            // outran the ring) are lost; the next keyframe puts the reader right again
+            cursor = Math.max(k.seq + 1, end - size);
+        }
+        for (; cursor < end && n < max; cursor++, n++) {
+            Entry e = ring[(int) cursor & (size - 1)];
+            if (e.seq != cursor) { // overwritten after `end` was read
+                cursor = Reader.LAPPED;
+                break;
+            }
+            out.accept(e.msg);
+        }
+        r.cursor = cursor;
+        return n;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel shared by every table: turn and betting deadlines, dealer pacing, session expiry.
+ *
+ * Time is cut into ticks of tickMillis. A timer goes into slot (deadline tick % SLOTS) and is
+ * looked at only when the wheel's hand reaches that slot, so scheduling and cancelling cost O(1)
+ * however many timers are pending; deadlines more than one lap away just stay in their slot for
+ * extra laps. Timers fire up to one tick late, never early.
+ *
+ * One thread owns the slots; other threads hand new timers over through a lock-free queue, and
+ * cancel() only marks a timer, which the wheel drops when its slot comes up. Tasks run on the
+ * wheel thread, so they must be short (tables only enqueue a task into their mailbox).
+ */
+public final class TimerWheel {
+    private static final int SLOTS = 512; // power of two
+
+    // Default tick for new wheels (set once from BlackjackServer startup options)
+    private static volatile long defaultTickMillis = 10;
+
+    /** A pending timer; cancel() is safe from any thread and a no-op once it has fired. */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private Timeout next; // slot chain, wheel thread only
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() { cancelled = true; }
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    private final long tickNanos;
+    private final long startNanos = System.nanoTime();
+    private final Timeout[] slots = new Timeout[SLOTS];
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+
+    public TimerWheel(String name, long tickMillis) {
+        if (tickMillis < 1) throw new IllegalArgumentException("tick must be at least 1 ms");
+        this.tickNanos = tickMillis * 1_000_000;
+        Thread.ofPlatform().daemon().name(name).start(this::run);
+    }
+
+    public static TimerWheel withDefaults(String name) {
+        return new TimerWheel(name, defaultTickMillis);
+    }
+
+    public static void setDefaultTickMillis(long tickMillis) { defaultTickMillis = tickMillis; }
+    public static long getDefaultTickMillis() { return defaultTickMillis; }
+
+    public long getTickMillis() { return tickNanos / 1_000_000; }
+
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long due = System.nanoTime() - startNanos + Math.max(0, delayMillis) * 1_000_000;
+        Timeout t = new Timeout(task, (due + tickNanos - 1) / tickNanos); // round up: never early
+        incoming.add(t);
+        return t;
+    }
+
+    private void run() {
+        for (long tick = 1; ; tick++) {
+            long wakeAt = startNanos + tick * tickNanos;
+            long now;
+            while ((now = System.nanoTime()) < wakeAt) {
+                LockSupport.parkNanos(wakeAt - now);
+            }
+            // Behind schedule (GC pause, slow task): the next ticks run back to back until caught up
+            drainIncoming(tick);
+            expire(tick);
+        }
+    }
+
+    private void drainIncoming(long tick) {
+        Timeout t;
+        while ((t = incoming.poll()) != null) {
+            if (t.cancelled) continue;
+            int slot = (int) (Math.max(t.deadlineTick, tick) & (SLOTS - 1)); // already due: this tick
+            t.next = slots[slot];
+            slots[slot] = t;
+        }
+    }
+
+    private void expire(long tick) {
+        int slot = (int) (tick & (SLOTS - 1));
+        Timeout t = slots[slot];
+        Timeout keep = null; // timers due on a later lap
+        slots[slot] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.cancelled) {
+                // dropped
+            } else if (t.deadlineTick <= tick) {
+                t.cancelled = true; // fired: later cancel() calls are no-ops
+                try {
+                    t.task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // one bad task must not stop every table's timers
+                }
+            } else {
+                t.next = keep;
+                keep = t;
+            }
+            t = next;
+        }
+        slots[slot] = keep;
+    }
+}
@@ -0,0 +1,503 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary protocol, negotiated per connection next to the text "COMMAND:DATA" protocol.
+ *
+ * Negotiation: the client sends the text line "PROTOCOL:BINARY" and waits for the same line back.
+ * After that both directions use frames:  [u16 length][u8 opcode][payload...]  (big endian,
+ * length counts opcode + payload). Cards are one byte (Card.Rank ordinal), scores one byte,
+ * amounts four bytes, player ids a u8 length followed by UTF-8 bytes.
+ *
+ * describe() turns a frame back into the exact line the text protocol sends, so the server only
+ * defines each message once and binary clients can still show a readable log. event() gives the
+ * machine-readable "EVT <TYPE> <fields...>" record that text clients receive right after that line.
+ */
+public final class WireProtocol {
+    private WireProtocol() {}
+
+    public static final String NEGOTIATE_LINE = "PROTOCOL:BINARY";
+    public static final int MAX_FRAME = 1024;
+
+    // Client -> server
+    public static final byte START = 0x01;
+    public static final byte PLACE_BET = 0x02;       // i32 amount
+    public static final byte PLAYER_ACTION = 0x03;   // u8 action
+    public static final byte BALANCE = 0x04;
+    public static final byte LOGIN = 0x05;           // id (account name)
+    public static final byte RESUME = 0x06;          // id (session token)
+    public static final byte BOT_PLAY = 0x07;        // i32 rounds, i32 bet, id (policy: strategy name or DecisionTable chart)
+    public static final byte SPECTATE = 0x08;        // u16 table
+    public static final byte LIST_TABLES = 0x09;     // u16 page
+    public static final byte JOIN_TABLE = 0x0A;      // u16 table
+    public static final byte QUICK_SEAT = 0x0B;      // i32 bet (picks the stakes; 0 = the first stakes level)
+
+    // Player actions
+    public static final byte ACTION_HIT = 0;
+    public static final byte ACTION_STAND = 1;
+    public static final byte ACTION_DOUBLE_DOWN = 2;
+    public static final byte ACTION_SURRENDER = 3;
+    private static final String[] ACTION_NAMES = {"Hit", "Stand", "DoubleDown", "Surrender"};
+
+    // Server -> client
+    public static final byte LOG = 0x10;             // utf8 text (anything without structured fields)
+    public static final byte SEPARATOR = 0x11;
+    public static final byte WELCOME = 0x12;         // id, i32 balance, u16 table
+    public static final byte GAME_PHASE = 0x13;      // betting phase started
+    public static final byte BALANCE_INFO = 0x14;    // u8 kind, i32 balance
+    public static final byte BET_PLACED = 0x15;      // id, i32 amount
+    public static final byte ROUND_START = 0x16;
+    public static final byte DEALER_OPEN = 0x17;     // card, score
+    public static final byte INITIAL_DEAL = 0x18;    // dealer card, card, card, total
+    public static final byte TURN = 0x19;            // id
+    public static final byte YOUR_TURN = 0x1A;
+    public static final byte HIT = 0x1B;             // id, card, score
+    public static final byte STAND = 0x1C;           // id, score
+    public static final byte DOUBLE_DOWN = 0x1D;     // id, card, score
+    public static final byte SURRENDER = 0x1E;       // id
+    public static final byte BUST = 0x1F;            // id, u8 afterDoubleDown
+    public static final byte DEALER_TURN = 0x20;     // score
+    public static final byte DEALER_DRAW = 0x21;     // card, score
+    public static final byte DEALER_FINAL = 0x22;    // score
+    public static final byte SETTLEMENT = 0x23;      // id, u8 outcome, i32 amount, player score, dealer score
+    public static final byte GAME_RESULT = 0x24;     // u8 status
+    public static final byte GAME_END = 0x25;
+    public static final byte SESSION = 0x26;         // id (token for RESUME)
+    public static final byte SNAPSHOT = 0x27;        // id, i32 balance, i32 bet, u8 phase, cards dealer, u8 score, cards hand, u8 score, id turn
+    public static final byte BOT_RESULT = 0x28;      // i32 rounds, i64 wagered, i64 paid out, i32 balance, i32 millis, 7 x i32 outcome counts
+    public static final byte TABLE_VIEW = 0x29;      // u16 table, u8 phase, cards dealer, u8 score, id turn, u8 seats, per seat: id, i32 bet, cards, u8 score
+    public static final byte LOBBY = 0x2A;           // i32 open tables, u16 page, u8 seats per table, u8 count, per table: u16 table, i32 min bet, i32 max bet (0 = none), u8 seats taken, i32 hands/hour
+                                                     // (cards = u8 count + one byte per card; turn id is empty outside the players' turns)
+
+    // BALANCE_INFO kinds
+    public static final byte BALANCE_AT_BETTING = 0;
+    public static final byte BALANCE_AFTER_SETTLEMENT = 1;
+    public static final byte BALANCE_QUERY = 2;
+
+    // SETTLEMENT outcomes
+    public static final byte OUTCOME_SURRENDER = 0;
+    public static final byte OUTCOME_BUST = 1;
+    public static final byte OUTCOME_DEALER_BUST = 2;
+    public static final byte OUTCOME_BLACKJACK = 3;
+    public static final byte OUTCOME_WIN = 4;
+    public static final byte OUTCOME_PUSH = 5;
+    public static final byte OUTCOME_LOSE = 6;
+
+    // GAME_RESULT status
+    public static final byte STATUS_LOSE = 0;
+    public static final byte STATUS_WIN = 1;
+    public static final byte STATUS_TIE = 2;
+    private static final String[] STATUS_NAMES = {"LOSE", "WIN", "TIE"};
+
+    // Snapshot phases
+    public static final byte PHASE_IDLE = 0;
+    public static final byte PHASE_BETTING = 1;
+    public static final byte PHASE_PLAYING = 2;
+    public static final byte PHASE_DEALER = 3;
+    private static final String[] PHASE_NAMES = {"IDLE", "BETTING", "PLAYING", "DEALER"};
+
+    public static final String EVENT_PREFIX = "EVT ";
+    private static final String[] OUTCOME_NAMES = {"SURRENDER", "BUST", "DEALER_BUST", "BLACKJACK", "WIN", "PUSH", "LOSE"};
+
+    private static final String[] CARD_NAMES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+
+    public static byte cardCode(Card card) {
+        return card.getCode();
+    }
+
+    public static String cardName(byte code) {
+        return CARD_NAMES[code];
+    }
+
+    public static String actionName(byte action) {
+        return ACTION_NAMES[action];
+    }
+
+    /** Action text used by the clients ("Hit", "Stand", ...) to its code, or -1. */
+    public static byte actionCode(String action) {
+        for (int i = 0; i < ACTION_NAMES.length; i++) {
+            if (ACTION_NAMES[i].equalsIgnoreCase(action)) return (byte) i;
+        }
+        return -1;
+    }
+
+    public static String outcomeName(byte outcome) {
+        return OUTCOME_NAMES[outcome];
+    }
+
+    public static String statusName(byte status) {
+        return STATUS_NAMES[status];
+    }
+
+    public static String phaseName(byte phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    // ---- Client side helpers ----
+
+    /** Writes a client command frame; arg is ignored for commands without payload. */
+    public static void writeCommand(OutputStream out, byte opcode, int arg) throws IOException {
+        byte[] frame;
+        if (opcode == PLACE_BET) {
+            frame = new byte[] {0, 5, opcode, (byte) (arg >>> 24), (byte) (arg >>> 16), (byte) (arg >>> 8), (byte) arg};
+        } else if (opcode == PLAYER_ACTION) {
+            frame = new byte[] {0, 2, opcode, (byte) arg};
+        } else if (opcode == SPECTATE || opcode == LIST_TABLES || opcode == JOIN_TABLE) {
+            frame = new byte[] {0, 3, opcode, (byte) (arg >>> 8), (byte) arg};
+        } else if (opcode == QUICK_SEAT) {
+            frame = new byte[] {0, 5, opcode, (byte) (arg >>> 24), (byte) (arg >>> 16), (byte) (arg >>> 8), (byte) arg};
+        } else {
+            frame = new byte[] {0, 1, opcode};
+        }
+        out.write(frame);
+        out.flush();
+    }
+
+    /** Writes a LOGIN (account name) or RESUME (session token) frame. */
+    public static void writeIdCommand(OutputStream out, byte opcode, String value) throws IOException {
+        byte[] id = value.getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[4 + id.length];
+        frame[1] = (byte) (2 + id.length);
+        frame[2] = opcode;
+        frame[3] = (byte) id.length;
+        System.arraycopy(id, 0, frame, 4, id.length);
+        out.write(frame);
+        out.flush();
+    }
+
+    /** Writes a BOT_PLAY frame (the policy is a strategy name or a DecisionTable chart, up to 255 bytes). */
+    public static void writeBotPlay(OutputStream out, int rounds, int bet, String policy) throws IOException {
+        byte[] id = policy.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(2 + 1 + 8 + 1 + id.length);
+        frame.putShort((short) (1 + 8 + 1 + id.length)).put(BOT_PLAY).putInt(rounds).putInt(bet).put((byte) id.length).put(id);
+        out.write(frame.array());
+        out.flush();
+    }
+
+    /** Sends the negotiation line and waits for the server's acknowledgement (read byte by byte, no buffering). */
+    public static void negotiate(InputStream in, OutputStream out) throws IOException {
+        out.write((NEGOTIATE_LINE + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                if (line.toString().equals(NEGOTIATE_LINE)) return;
+                line.setLength(0); // text lines sent before the switch
+            } else if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        throw new IOException("Connection closed during protocol negotiation");
+    }
+
+    /** Reads one frame body (opcode + payload). */
+    public static ByteBuffer readFrame(DataInputStream in) throws IOException {
+        return readFrame(in, 0xFFFF);
+    }
+
+    /** Same, refusing an empty frame or one longer than `maxLength` (the server reads commands with MAX_FRAME). */
+    public static ByteBuffer readFrame(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == 0 || length > maxLength) throw new IOException("Bad frame length " + length);
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return ByteBuffer.wrap(body);
+    }
+
+    public static String readId(ByteBuffer body) {
+        int len = body.get() & 0xFF;
+        String id = new String(body.array(), body.arrayOffset() + body.position(), len, StandardCharsets.UTF_8);
+        body.position(body.position() + len);
+        return id;
+    }
+
+    // u8 count + card codes, joined with `separator`
+    private static String readCards(ByteBuffer b, String separator) {
+        int n = b.get() & 0xFF;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(separator);
+            sb.append(cardName(b.get()));
+        }
+        return sb.toString();
+    }
+
+    /** The text protocol line for a frame body (position is left unchanged). */
+    public static String describe(ByteBuffer frame) {
+        ByteBuffer b = frame.duplicate();
+        byte op = b.get();
+        switch (op) {
+            case LOG: {
+                byte[] text = new byte[b.remaining()];
+                b.get(text);
+                return new String(text, StandardCharsets.UTF_8);
+            }
+            case SEPARATOR: return "------------------------------------------------";
+            case WELCOME: {
+                String id = readId(b);
+                int balance = b.getInt();
+                int table = b.getShort() & 0xFFFF;
+                return "WELCOME: Welcome to the Blackjack Server! (ID: " + id + ", Balance: " + balance + ", Table: " + table + ")";
+            }
+            case GAME_PHASE: return "GAME_PHASE: Betting Phase Started!";
+            case BALANCE_INFO: {
+                byte kind = b.get();
+                int balance = b.getInt();
+                if (kind == BALANCE_AT_BETTING) return "INFO: Your current balance is [" + balance + "].";
+                if (kind == BALANCE_AFTER_SETTLEMENT) return "INFO: Balance after settlement: [" + balance + "]";
+                return "INFO: Current Balance is [" + balance + "].";
+            }
+            case BET_PLACED: {
+                String id = readId(b);
+                return "SERVER_MSG: [" + id + "] placed a bet of " + b.getInt() + ".";
+            }
+            case ROUND_START: return "ROUND_START: Betting closed! The game begins.";
+            case DEALER_OPEN: {
+                String card = cardName(b.get());
+                return "INFO: Dealer's open card: [" + card + "] (Score: " + b.get() + ")";
+            }
+            case INITIAL_DEAL: {
+                String dealer = cardName(b.get());
+                String c1 = cardName(b.get());
+                String c2 = cardName(b.get());
+                return "INITIAL_DEAL: Dealer=[" + dealer + "], Cards=[" + c1 + "," + c2 + "], Total=[" + b.get() + "]";
+            }
+            case TURN: return "TURN: It is [" + readId(b) + "]'s turn.";
+            case YOUR_TURN: return "YOUR_TURN: Choose action (HIT, STAND, DOUBLEDOWN, SURRENDER).";
+            case HIT: {
+                String id = readId(b);
+                String card = cardName(b.get());
+                return "ACTION: [" + id + "] Hit! (Draw: " + card + ", Score: " + b.get() + ")";
+            }
+            case STAND: {
+                String id = readId(b);
+                return "ACTION: [" + id + "] Stand. (Final Score: " + b.get() + ")";
+            }
+            case DOUBLE_DOWN: {
+                String id = readId(b);
+                String card = cardName(b.get());
+                return "ACTION: [" + id + "] Double Down! (Draw: " + card + ", Final Score: " + b.get() + ")";
+            }
+            case SURRENDER: return "ACTION: [" + readId(b) + "] Surrender. (Given up)";
+            case BUST: {
+                String id = readId(b);
+                return "RESULT: [" + id + "] BUST! " + (b.get() != 0 ? "(Lost)" : "(Over 21)");
+            }
+            case DEALER_TURN: return "DEALER_TURN: All player turns ended. Dealer draws cards. (Current: " + b.get() + ")";
+            case DEALER_DRAW: {
+                String card = cardName(b.get());
+                return "DEALER_DRAW: Dealer drew [" + card + "]. (Dealer Score: " + b.get() + ")";
+            }
+            case DEALER_FINAL: return "Dealer Final Score: " + b.get();
+            case SETTLEMENT: {
+                String id = readId(b);
+                byte outcome = b.get();
+                int amount = b.getInt();
+                int p = b.get();
+                int d = b.get();
+                switch (outcome) {
+                    case OUTCOME_SURRENDER: return id + ": Surrender (Given up: " + amount + " returned)";
+                    case OUTCOME_BUST: return id + ": Lose (Bust)";
+                    case OUTCOME_DEALER_BUST: return id + ": Win! (Dealer Bust) - Prize: " + amount;
+                    case OUTCOME_BLACKJACK: return id + ": Blackjack Win! (" + p + " vs " + d + ") - Prize: " + amount;
+                    case OUTCOME_WIN: return id + ": Win! (" + p + " vs " + d + ") - Prize: " + amount;
+                    case OUTCOME_PUSH: return id + ": Tie (Push)";
+                    default: return id + ": Lose (" + p + " vs " + d + ") - Bet lost.";
+                }
+            }
+            case GAME_RESULT: return "GAME_RESULT:" + statusName(b.get());
+            case GAME_END: return "GAME_END: Round ended. Type START to play again.";
+            case SESSION: return "SESSION: Resume token [" + readId(b) + "] (after a reconnect send RESUME:<token>)";
+            case SNAPSHOT: {
+                String id = readId(b);
+                int balance = b.getInt();
+                int bet = b.getInt();
+                String phase = phaseName(b.get());
+                String dealer = readCards(b, ",");
+                int dealerScore = b.get();
+                String hand = readCards(b, ",");
+                int score = b.get();
+                String turn = readId(b);
+                return "SNAPSHOT: [" + id + "] Balance=" + balance + ", Bet=" + bet + ", Phase=" + phase
+                        + ", Dealer=[" + dealer + "] (" + dealerScore + "), Hand=[" + hand + "] (" + score + ")"
+                        + ", Turn=[" + turn + "]";
+            }
+            case BOT_RESULT: {
+                int rounds = b.getInt();
+                long wagered = b.getLong();
+                long paid = b.getLong();
+                int balance = b.getInt();
+                int millis = b.getInt();
+                StringBuilder sb = new StringBuilder("BOT_RESULT: " + rounds + " rounds in " + millis + " ms, wagered "
+                        + wagered + ", paid " + paid + " (net " + (paid - wagered) + "), balance " + balance + " |");
+                for (byte o = 0; o < OUTCOME_NAMES.length; o++) {
+                    sb.append(' ').append(OUTCOME_NAMES[o]).append('=').append(b.getInt());
+                }
+                return sb.toString();
+            }
+            case TABLE_VIEW: {
+                int table = b.getShort() & 0xFFFF;
+                String phase = phaseName(b.get());
+                String dealer = readCards(b, ",");
+                int dealerScore = b.get();
+                String turn = readId(b);
+                StringBuilder sb = new StringBuilder("TABLE: #" + table + " " + phase + ", Dealer=[" + dealer + "] ("
+                        + dealerScore + "), Turn=[" + turn + "]");
+                int seats = b.get() & 0xFF;
+                for (int i = 0; i < seats; i++) {
+                    String id = readId(b);
+                    int bet = b.getInt();
+                    String cards = readCards(b, ",");
+                    sb.append(" | ").append(id).append(" Bet=").append(bet).append(" [").append(cards).append("] (").append(b.get()).append(')');
+                }
+                return sb.toString();
+            }
+            case LOBBY: {
+                int open = b.getInt();
+                int page = b.getShort() & 0xFFFF;
+                int seats = b.get() & 0xFF;
+                int count = b.get() & 0xFF;
+                StringBuilder sb = new StringBuilder("LOBBY: " + open + " tables open, page " + page);
+                for (int i = 0; i < count; i++) {
+                    int table = b.getShort() & 0xFFFF;
+                    int min = b.getInt();
+                    int max = b.getInt();
+                    int taken = b.get() & 0xFF;
+                    sb.append(" | #").append(table).append(" Stakes=").append(min).append(max == 0 ? "+" : "-" + max)
+                            .append(" Seats=").append(taken).append('/').append(seats).append(" Hands/h=").append(b.getInt());
+                }
+                return sb.toString();
+            }
+            default: return "UNKNOWN: opcode " + op;
+        }
+    }
+
+    /**
+     * The structured event record for a frame body, or null for plain log lines.
+     * Fields are separated by single spaces; the dealer is "dealer", players by id.
+     *   EVT WELCOME <id> <balance> <table>     EVT PHASE BETTING         EVT BALANCE <balance>
+     *   EVT BET <id> <amount>                  EVT ROUND_START           EVT DEAL <dealer> <c1> <c2> <total>
+     *   EVT CARD <dealer|id> <card> <score>    EVT DOUBLE <id> <card> <score>
+     *   EVT STAND <id> <score>                 EVT SURRENDER <id>        EVT BUST <id>
+     *   EVT TURN <id>                          EVT YOUR_TURN             EVT DEALER_TURN <score>
+     *   EVT DEALER_FINAL <score>               EVT SETTLE <id> <outcome> <amount>
+     *   EVT RESULT <WIN|LOSE|TIE>              EVT GAME_END              EVT SESSION <token>
+     *   EVT SNAPSHOT <id> <balance> <bet> <IDLE|BETTING|PLAYING|DEALER> <dealer cards|-> <dealer score>
+     *                <cards|-> <score> <turn id|->          (card lists are comma-separated)
+     *   EVT BOT_RESULT <rounds> <wagered> <paid> <balance> <millis> <count per outcome, SURRENDER..LOSE>
+     *   EVT TABLE <table> <phase> <dealer cards|-> <dealer score> <turn id|-> <seats>
+     *             then per seat: <id> <bet> <cards|-> <score>      (a spectator's keyframe)
+     *   EVT LOBBY <open tables> <page> <seats per table> <count>
+     *             then per table: <table> <min bet> <max bet, 0 = none> <seats taken> <hands/hour>
+     */
+    public static String event(ByteBuffer frame) {
+        ByteBuffer b = frame.duplicate();
+        byte op = b.get();
+        switch (op) {
+            case WELCOME: {
+                String id = readId(b);
+                int balance = b.getInt();
+                return EVENT_PREFIX + "WELCOME " + id + " " + balance + " " + (b.getShort() & 0xFFFF);
+            }
+            case GAME_PHASE: return EVENT_PREFIX + "PHASE BETTING";
+            case BALANCE_INFO: {
+                b.get();
+                return EVENT_PREFIX + "BALANCE " + b.getInt();
+            }
+            case BET_PLACED: {
+                String id = readId(b);
+                return EVENT_PREFIX + "BET " + id + " " + b.getInt();
+            }
+            case ROUND_START: return EVENT_PREFIX + "ROUND_START";
+            case DEALER_OPEN:
+            case DEALER_DRAW: {
+                String card = cardName(b.get());
+                return EVENT_PREFIX + "CARD dealer " + card + " " + b.get();
+            }
+            case INITIAL_DEAL: {
+                String dealer = cardName(b.get());
+                String c1 = cardName(b.get());
+                String c2 = cardName(b.get());
+                return EVENT_PREFIX + "DEAL " + dealer + " " + c1 + " " + c2 + " " + b.get();
+            }
+            case HIT:
+            case DOUBLE_DOWN: {
+                String id = readId(b);
+                String card = cardName(b.get());
+                return EVENT_PREFIX + (op == HIT ? "CARD " : "DOUBLE ") + id + " " + card + " " + b.get();
+            }
+            case STAND: {
+                String id = readId(b);
+                return EVENT_PREFIX + "STAND " + id + " " + b.get();
+            }
+            case SURRENDER: return EVENT_PREFIX + "SURRENDER " + readId(b);
+            case BUST: return EVENT_PREFIX + "BUST " + readId(b);
+            case TURN: return EVENT_PREFIX + "TURN " + readId(b);
+            case YOUR_TURN: return EVENT_PREFIX + "YOUR_TURN";
+            case DEALER_TURN: return EVENT_PREFIX + "DEALER_TURN " + b.get();
+            case DEALER_FINAL: return EVENT_PREFIX + "DEALER_FINAL " + b.get();
+            case SETTLEMENT: {
+                String id = readId(b);
+                String outcome = outcomeName(b.get());
+                return EVENT_PREFIX + "SETTLE " + id + " " + outcome + " " + b.getInt();
+            }
+            case GAME_RESULT: return EVENT_PREFIX + "RESULT " + statusName(b.get());
+            case GAME_END: return EVENT_PREFIX + "GAME_END";
+            case SESSION: return EVENT_PREFIX + "SESSION " + readId(b);
+            case SNAPSHOT: {
+                String id = readId(b);
+                int balance = b.getInt();
+                int bet = b.getInt();
+                String phase = phaseName(b.get());
+                String dealer = readCards(b, ",");
+                int dealerScore = b.get();
+                String hand = readCards(b, ",");
+                int score = b.get();
+                String turn = readId(b);
+                return EVENT_PREFIX + "SNAPSHOT " + id + " " + balance + " " + bet + " " + phase + " "
+                        + (dealer.isEmpty() ? "-" : dealer) + " " + dealerScore + " "
+                        + (hand.isEmpty() ? "-" : hand) + " " + score + " " + (turn.isEmpty() ? "-" : turn);
+            }
+            case BOT_RESULT: {
+                StringBuilder sb = new StringBuilder(EVENT_PREFIX + "BOT_RESULT ");
+                sb.append(b.getInt()).append(' ').append(b.getLong()).append(' ').append(b.getLong())
+                        .append(' ').append(b.getInt()).append(' ').append(b.getInt());
+                for (int o = 0; o < OUTCOME_NAMES.length; o++) sb.append(' ').append(b.getInt());
+                return sb.toString();
+            }
+            case LOBBY: {
+                StringBuilder sb = new StringBuilder(EVENT_PREFIX + "LOBBY ");
+                sb.append(b.getInt()).append(' ').append(b.getShort() & 0xFFFF).append(' ').append(b.get() & 0xFF);
+                int count = b.get() & 0xFF;
+                sb.append(' ').append(count);
+                for (int i = 0; i < count; i++) {
+                    sb.append(' ').append(b.getShort() & 0xFFFF).append(' ').append(b.getInt()).append(' ').append(b.getInt())
+                            .append(' ').append(b.get() & 0xFF).append(' ').append(b.getInt());
+                }
+                return sb.toString();
+            }
+            case TABLE_VIEW: {
+                StringBuilder sb = new StringBuilder(EVENT_PREFIX + "TABLE ");
+                sb.append(b.getShort() & 0xFFFF).append(' ').append(phaseName(b.get())).append(' ');
+                String dealer = readCards(b, ",");
+                sb.append(dealer.isEmpty() ? "-" : dealer).append(' ').append(b.get()).append(' ');
+                String turn = readId(b);
+                sb.append(turn.isEmpty() ? "-" : turn);
+                int seats = b.get() & 0xFF;
+                sb.append(' ').append(seats);
+                for (int i = 0; i < seats; i++) {
+                    sb.append(' ').append(readId(b)).append(' ').append(b.getInt()).append(' ');
+                    String cards = readCards(b, ",");
+                    sb.append(cards.isEmpty() ? "-" : cards).append(' ').append(b.get());
+                }
+                return sb.toString();
+            }
+            default: return null; // LOG, SEPARATOR
+        }
+    }
+}